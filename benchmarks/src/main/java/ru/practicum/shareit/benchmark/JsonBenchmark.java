@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.LastBooking;
+import ru.practicum.shareit.booking.dto.NextBooking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов сервера в JSON
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    private ObjectMapper objectMapper;
+    private ItemDto itemDto;
+    private BookingDtoOut bookingDto;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        LocalDateTime now = LocalDateTime.now();
+        itemDto = new ItemDto(1L,
+                "Дрель",
+                "Простая дрель",
+                true,
+                new LastBooking(1L, 2L),
+                new NextBooking(2L, 3L),
+                List.of(new CommentDto(1L, "Отличная дрель", "booker", now)),
+                null);
+        bookingDto = new BookingDtoOut(1L, now, now.plusDays(1), BookingStatus.APPROVED, 1L, "Дрель", 2L);
+    }
+
+    @Benchmark
+    public byte[] serializeItemDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(itemDto);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookingDto);
+    }
+}
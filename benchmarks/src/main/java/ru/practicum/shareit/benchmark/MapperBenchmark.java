@@ -0,0 +1,90 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в DTO без обращения к БД
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Item item;
+    private User booker;
+    private Booking booking;
+    private BookingDto bookingDto;
+    private ItemBookingSummary summary;
+    private Comment comment;
+    private List<CommentDto> comments;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1L, "owner", "owner@mail.ru");
+        booker = new User(2L, "booker", "booker@mail.ru");
+        item = new Item(1L, "Дрель", "Простая дрель", true, owner, null);
+
+        bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+
+        booking = BookingMapper.mapToBooking(bookingDto, item, booker);
+        booking.setId(1L);
+        booking.setStatus(BookingStatus.APPROVED);
+
+        summary = new ItemBookingSummary(item.getId());
+        summary.setLastBookingId(1L);
+        summary.setLastBookerId(booker.getId());
+        summary.setNextBookingId(2L);
+        summary.setNextBookerId(booker.getId());
+        summary.setNextStart(bookingDto.getStart());
+
+        comment = new Comment();
+        comment.setId(1L);
+        comment.setText("Отличная дрель");
+        comment.setItem(item);
+        comment.setAuthor(booker);
+        comment.setCreate(LocalDateTime.now());
+        comments = List.of(CommentMapper.mapToCommentDto(comment), CommentMapper.mapToCommentDto(comment));
+    }
+
+    @Benchmark
+    public ItemDto mapToItemDtoOwner() {
+        return ItemMapper.mapToItemDtoOwner(item, summary, comments);
+    }
+
+    @Benchmark
+    public Booking mapToBooking() {
+        return BookingMapper.mapToBooking(bookingDto, item, booker);
+    }
+
+    @Benchmark
+    public BookingDtoOut mapToBookingDtoOut() {
+        return BookingMapper.mapToBookingDtoOut(booking);
+    }
+
+    @Benchmark
+    public CommentDto mapToCommentDto() {
+        return CommentMapper.mapToCommentDto(comment);
+    }
+}
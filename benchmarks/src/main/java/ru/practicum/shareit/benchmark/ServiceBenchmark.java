@@ -0,0 +1,272 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utilites.QueryStats;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Полный путь сервисного слоя на встроенной H2.
+ * Владелец с ID 1 имеет items предметов, у каждого предмета BOOKINGS_PER_ITEM бронирований
+ * и COMMENTS_PER_ITEM комментариев
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final long OWNER_ID = 1;
+    private static final int BOOKERS = 10;
+    private static final int BOOKINGS_PER_ITEM = 5;
+    private static final int COMMENTS_PER_ITEM = 2;
+    // Бронирование с ID 1 на предмет 1 в прошлом принадлежит этому пользователю, см. seed
+    private static final long COMMENT_AUTHOR_ID = OWNER_ID + 2;
+
+    @Param({"100", "1000"})
+    private int items;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private ItemBookingSummaryService itemBookingSummaryService;
+    private long seededBookings;
+    private long seededComments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark" + items + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.sql.init.schema-locations=classpath:schema.sql",
+                        "--shareit.item.search-mode=JPQL",
+                        "--shareit.booking.partitioning.enabled=false",
+                        "--logging.level.root=WARN");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate);
+        itemBookingSummaryService = context.getBean(ItemBookingSummaryService.class);
+        itemBookingSummaryService.refresh(LongStream.rangeClosed(1, items)
+                .boxed()
+                .collect(Collectors.toList()));
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> findItemByIdUser(QueryCounters counters) {
+        return counters.measure(() -> itemService.findItemByIdUser(OWNER_ID, 0, pageSize));
+    }
+
+    @Benchmark
+    public ItemDto findItemByIdItem(QueryCounters counters) {
+        return counters.measure(() -> itemService.findItemByIdItem(1, OWNER_ID));
+    }
+
+    @Benchmark
+    public List<BookingDtoOut> findBookingOwner(QueryCounters counters) {
+        return counters.measure(() -> bookingService.findBookingOwner(OWNER_ID, BookingStatus.ALL, 0, pageSize, null));
+    }
+
+    /**
+     * Комментарий бронировавшего пользователя: несколько чтений и запись в одном запросе.
+     * Созданные комментарии удаляются после каждой итерации, см. CreatedComments
+     */
+    @Benchmark
+    public CommentDto createComment(QueryCounters counters, CreatedComments createdComments) {
+        Comment comment = new Comment();
+        comment.setText("comment");
+        return counters.measure(() -> itemService.createComment(COMMENT_AUTHOR_ID, 1, comment));
+    }
+
+    /**
+     * Массовое создание pageSize бронирований одним пакетом, показывает эффект батчинга вставок.
+     * Созданные бронирования удаляются после каждого вызова, см. CreatedBookings. Вызовов за итерацию
+     * немного, поэтому JIT прогревается дольше, чем в остальных методах
+     */
+    @Benchmark
+    @Warmup(iterations = 10, time = 2)
+    public List<BookingDtoOut> createBatch(QueryCounters counters, CreatedBookings createdBookings) {
+        LocalDateTime start = LocalDateTime.now().plusYears(1);
+        List<BookingDto> bookings = new ArrayList<>();
+        for (long itemId = 1; itemId <= pageSize; itemId++) {
+            BookingDto booking = new BookingDto();
+            booking.setItemId(itemId);
+            booking.setStart(start);
+            booking.setEnd(start.plusDays(1));
+            bookings.add(booking);
+        }
+        BookingBatchDto batch = new BookingBatchDto();
+        batch.setBookings(bookings);
+        return counters.measure(() -> bookingService.createBatch(OWNER_ID + 1, batch));
+    }
+
+    /**
+     * Бронирования, созданные createBatch. Без удаления таблица booking растет с каждым вызовом,
+     * и поздние вызовы измеряют вставку в другую базу, чем ранние. Вызов длится десятки миллисекунд,
+     * поэтому накладные расходы Level.Invocation на его фоне не видны
+     */
+    @State(Scope.Thread)
+    public static class CreatedBookings {
+        @TearDown(Level.Invocation)
+        public void delete(ServiceBenchmark benchmark) {
+            benchmark.deleteCreatedBookings();
+        }
+    }
+
+    /**
+     * Комментарии, созданные createComment, и увеличенная ими версия предмета 1. createComment
+     * комментарии предмета не читает, поэтому несколько сотен комментариев за итерацию на стоимость
+     * вызова не влияют, и удаление после итерации, а не после каждого вызова, как в CreatedBookings
+     */
+    @State(Scope.Thread)
+    public static class CreatedComments {
+        @TearDown(Level.Iteration)
+        public void delete(ServiceBenchmark benchmark) {
+            benchmark.deleteCreatedComments();
+        }
+    }
+
+    /**
+     * Счетчики обращений к БД за итерацию, собранные через QueryStats сервера.
+     * Среднее на запрос - счетчик, деленный на requests
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class QueryCounters {
+        public long requests;
+        public long connections;
+        public long flushes;
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+            connections = 0;
+            flushes = 0;
+            statements = 0;
+        }
+
+        <T> T measure(Supplier<T> request) {
+            QueryStats.begin();
+            try {
+                return request.get();
+            } finally {
+                QueryStats stats = QueryStats.end();
+                requests++;
+                connections += stats.getConnections();
+                flushes += stats.getFlushes();
+                statements += stats.getStatements();
+            }
+        }
+    }
+
+    /**
+     * Возвращает бронирования к seed: записи booking_view удаляются каскадом,
+     * сводки затронутых предметов пересчитываются
+     */
+    void deleteCreatedBookings() {
+        jdbcTemplate.update("delete from booking where id > ?", seededBookings);
+        itemBookingSummaryService.refresh(LongStream.rangeClosed(1, pageSize)
+                .boxed()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Возвращает комментарии и версию предмета 1 к seed. Версия меняется в обход Hibernate,
+     * поэтому предмет удаляется из кэша второго уровня
+     */
+    void deleteCreatedComments() {
+        jdbcTemplate.update("delete from comment where id > ?", seededComments);
+        jdbcTemplate.update("update items set version = 0 where id = 1");
+        context.getBean(EntityManagerFactory.class).getCache().evict(Item.class, 1L);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>();
+        for (long id = OWNER_ID; id <= OWNER_ID + BOOKERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> itemRows = new ArrayList<>();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Object[]> commentRows = new ArrayList<>();
+        long bookingId = 1;
+        long commentId = 1;
+        for (long itemId = 1; itemId <= items; itemId++) {
+            itemRows.add(new Object[]{itemId, "item" + itemId, "description" + itemId, true, OWNER_ID});
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                long bookerId = OWNER_ID + 1 + (bookingId % BOOKERS);
+                LocalDateTime start = now.plusDays(i * 2L - BOOKINGS_PER_ITEM);
+                bookingRows.add(new Object[]{bookingId++, itemId, bookerId,
+                        Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)), "APPROVED"});
+            }
+            for (int i = 0; i < COMMENTS_PER_ITEM; i++) {
+                long authorId = OWNER_ID + 1 + (commentId % BOOKERS);
+                commentRows.add(new Object[]{commentId++, "comment", itemId, authorId, Timestamp.valueOf(now)});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, available, user_id) " +
+                "values (?, ?, ?, ?, ?)", itemRows);
+        jdbcTemplate.batchUpdate("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.batchUpdate("insert into comment (id, text, item_id, author_id, time_create) " +
+                "values (?, ?, ?, ?, ?)", commentRows);
+        jdbcTemplate.update("insert into booking_view " +
+                "(id, owner_id, booker_id, item_id, item_name, start_booking, end_booking, status) " +
+                "select b.id, i.user_id, b.booker_id, b.item_id, i.name, b.start_booking, b.end_booking, b.status " +
+                "from booking as b join items as i on i.id = b.item_id");
+        jdbcTemplate.update("insert into item_booking_summary (item_id) select id from items");
+        seededBookings = bookingId - 1;
+        seededComments = commentId - 1;
+
+        // ID заданы явно, поэтому последовательности сдвигаются за них с запасом на пул Hibernate
+        restartSequence(jdbcTemplate, "users_seq", OWNER_ID + BOOKERS);
+        restartSequence(jdbcTemplate, "items_seq", items);
+        restartSequence(jdbcTemplate, "booking_seq", bookingId);
+        restartSequence(jdbcTemplate, "comment_seq", commentId);
+    }
+
+    private void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long lastId) {
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (lastId + 50));
+    }
+}
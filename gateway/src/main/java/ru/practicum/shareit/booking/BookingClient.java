@@ -2,61 +2,93 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalBatchDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private final ResponseCache responseCache;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         @Value("${shareit-server.timeout.bookings:${shareit-server.timeout.default}}") Duration timeout,
+                         @Value("${shareit-server.pass-through:true}") boolean passThrough,
+                         WebClient.Builder builder,
+                         ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                timeout,
+                passThrough
         );
+        this.responseCache = responseCache;
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
+        ));
+        if (after != null) {
+            parameters.put("after", after);
+            return get("?state={state}&from={from}&size={size}&after={after}", userId, parameters);
+        }
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
 
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookItemRequestDto requestDto) {
+        return post("", userId, requestDto)
+                .doOnSuccess(response -> responseCache.invalidate(ResponseCache.ITEMS, "/" + requestDto.getItemId()));
+    }
+
+    public Mono<ResponseEntity<Object>> bookItems(long userId, BookItemBatchRequestDto requestDto) {
+        return post("/batch", userId, requestDto)
+                .doOnSuccess(response -> requestDto.getBookings().forEach(booking ->
+                        responseCache.invalidate(ResponseCache.ITEMS, "/" + booking.getItemId())));
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId, String ifNoneMatch) {
+        return getIfNoneMatch("/" + bookingId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> responseToRequest(long userId, long bookingId, boolean approved) {
+    public Mono<ResponseEntity<Object>> responseToRequest(long userId, long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null)
+                .doOnSuccess(response -> responseCache.invalidateAll(ResponseCache.ITEMS));
     }
 
-    public ResponseEntity<Object> getBookingOwner(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> responseToRequests(long userId, BookingApprovalBatchDto requestDto) {
+        return patch("/batch", userId, requestDto)
+                .doOnSuccess(response -> responseCache.invalidateAll(ResponseCache.ITEMS));
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingOwner(long userId, BookingState state, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
+        ));
+        if (after != null) {
+            parameters.put("after", after);
+            return get("/owner?state={state}&from={from}&size={size}&after={after}", userId, parameters);
+        }
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
 }
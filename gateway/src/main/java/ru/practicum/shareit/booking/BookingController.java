@@ -3,11 +3,15 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemBatchRequestDto;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalBatchDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
@@ -30,21 +34,24 @@ public class BookingController {
      * @param stateParam Статус бронирования
      * @param from С какого элемента выводить
      * @param size Количество элементов на странице
+     * @param after Курсор следующей страницы из заголовка X-Next-Cursor
      * @return
      */
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id")
-                                              long userId,
-                                              @RequestParam(name = "state", defaultValue = "all")
-                                              String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                              Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10")
-                                              Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id")
+                                                    long userId,
+                                                    @RequestParam(name = "state", defaultValue = "all")
+                                                    String stateParam,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                    Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                    Integer size,
+                                                    @RequestParam(name = "after", required = false)
+                                                    String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     /**
@@ -54,24 +61,43 @@ public class BookingController {
      * @return Созданное бронирование
      */
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Valid BookItemRequestDto requestDto) {
         validationTime(requestDto);
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    /**
+     * Запрос на пакетное создание бронирований
+     * @param userId ID пользователя
+     * @param requestDto Бронирования, не более BookItemBatchRequestDto.MAX_SIZE
+     * @return Созданные бронирования. Пакет выполняется целиком или не выполняется
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestBody @Valid BookItemBatchRequestDto requestDto) {
+        for (BookItemRequestDto booking : requestDto.getBookings()) {
+            validationTime(booking);
+        }
+        log.info("Creating {} bookings, userId={}", requestDto.getBookings().size(), userId);
+        return bookingClient.bookItems(userId, requestDto);
+    }
+
     /**
      * Запрос на вывод бронирования по ID бронирования
      * @param userId ID пользователя
      * @param bookingId ID бронирования
-     * @return Бронирование
+     * @param ifNoneMatch ETag ранее полученной версии бронирования
+     * @return Бронирование или 304, если бронирование не изменилось
      */
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable Long bookingId,
+                                                   @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                   String ifNoneMatch) {
         log.info("Get booking {}, userId={}", bookingId, userId);
-        return bookingClient.getBooking(userId, bookingId);
+        return bookingClient.getBooking(userId, bookingId, ifNoneMatch);
     }
 
     /**
@@ -82,33 +108,49 @@ public class BookingController {
      * @return бронирование
      */
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> responseToRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                    @PathVariable long bookingId,
-                                                    @RequestParam boolean approved) {
+    public Mono<ResponseEntity<Object>> responseToRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                          @PathVariable long bookingId,
+                                                          @RequestParam boolean approved) {
         log.info("Response to request booking {}, userId={}, approved={}", bookingId, userId, approved);
         return bookingClient.responseToRequest(userId, bookingId, approved);
     }
 
+    /**
+     * Запрос на пакетное подтверждение или отклонение бронирований
+     * @param userId ID пользователя
+     * @param requestDto Решения по бронированиям, не более BookingApprovalBatchDto.MAX_SIZE
+     * @return Измененные бронирования. Пакет выполняется целиком или не выполняется
+     */
+    @PatchMapping("/batch")
+    public Mono<ResponseEntity<Object>> responseToRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @RequestBody @Valid BookingApprovalBatchDto requestDto) {
+        log.info("Response to {} booking requests, userId={}", requestDto.getApprovals().size(), userId);
+        return bookingClient.responseToRequests(userId, requestDto);
+    }
+
     /**
      * Запрос на вывод бронирований вещи, осуществляемый владельцем вещи
      * @param userId ID пользователя
      * @param stateParam Статус бронирования
      * @param from С какого элемента выводить
      * @param size Количество элементов на странице
+     * @param after Курсор следующей страницы из заголовка X-Next-Cursor
      * @return
      */
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingOwner(@RequestHeader("X-Sharer-User-Id")
-                                                  long userId,
-                                                  @RequestParam(name = "state", defaultValue = "all")
-                                                  String stateParam,
-                                                  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                  Integer from,
-                                                  @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                  Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingOwner(@RequestHeader("X-Sharer-User-Id")
+                                                        long userId,
+                                                        @RequestParam(name = "state", defaultValue = "all")
+                                                        String stateParam,
+                                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                        Integer from,
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                        Integer size,
+                                                        @RequestParam(name = "after", required = false)
+                                                        String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
         log.info("Find booking owner {}, from={}, size={}", userId, from, size);
-        return bookingClient.getBookingOwner(userId, state, from, size);
+        return bookingClient.getBookingOwner(userId, state, from, size, after);
     }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookItemBatchRequestDto {
+    public static final int MAX_SIZE = 100;
+
+    @NotEmpty
+    @Size(max = MAX_SIZE)
+    private List<@Valid BookItemRequestDto> bookings;
+}
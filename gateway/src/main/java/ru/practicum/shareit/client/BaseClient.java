@@ -1,98 +1,124 @@
 package ru.practicum.shareit.client;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 public class BaseClient {
-    protected final RestTemplate rest;
-
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
-    }
-
-    protected ResponseEntity<Object> get(String path) {
+    /**
+     * Заголовки ответа сервера, которые шлюз выставляет сам
+     */
+    private static final List<String> NOT_RELAYED_HEADERS = List.of(
+            HttpHeaders.CONNECTION,
+            "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONTENT_LENGTH
+    );
+
+    protected final WebClient web;
+    private final Duration timeout;
+    private final boolean passThrough;
+
+    public BaseClient(WebClient web, Duration timeout, boolean passThrough) {
+        this.web = web;
+        this.timeout = timeout;
+        this.passThrough = passThrough;
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected Mono<ResponseEntity<Object>> getIfNoneMatch(String path, long userId, @Nullable String ifNoneMatch) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, null, null, ifNoneMatch);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, @Nullable String ifNoneMatch) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> {
+                    headers.addAll(defaultHeaders(userId));
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> requestSpec = body != null ? request.bodyValue(body) : request;
+
+        return requestSpec.exchangeToMono(this::prepareGatewayResponse)
+                .timeout(timeout)
+                .onErrorResume(TimeoutException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build()));
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +131,67 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        if (passThrough) {
+            return response.toEntity(byte[].class)
+                    .map(BaseClient::relayGatewayResponse);
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (response.statusCode().is2xxSuccessful()) {
+            return response.toEntity(Object.class);
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.rawStatusCode());
+        String etag = response.headers().asHttpHeaders().getETag();
+        if (etag != null) {
+            responseBuilder.eTag(etag);
         }
 
-        return responseBuilder.build();
+        return response.bodyToMono(byte[].class)
+                .<ResponseEntity<Object>>map(responseBuilder::body)
+                .defaultIfEmpty(responseBuilder.build());
+    }
+
+    /**
+     * Передает ответ сервера клиенту как есть: статус, заголовки и тело без разбора JSON
+     *
+     * @param response Ответ сервера с телом в виде байтов
+     * @return Ответ шлюза
+     */
+    private static ResponseEntity<Object> relayGatewayResponse(ResponseEntity<byte[]> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        NOT_RELAYED_HEADERS.forEach(headers::remove);
+
+        return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(headers)
+                .body(response.getBody());
+    }
+
+    /**
+     * Отвечает 304, если ETag успешного ответа совпадает с одним из If-None-Match клиента
+     *
+     * @param response    Ответ сервера или кэша
+     * @param ifNoneMatch Заголовок If-None-Match клиента
+     * @return Исходный ответ или 304
+     */
+    protected static ResponseEntity<Object> checkNotModified(ResponseEntity<Object> response, @Nullable String ifNoneMatch) {
+        String etag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || etag == null || !response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        String strongEtag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(strongEtag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .build();
+            }
+        }
+        return response;
     }
 }
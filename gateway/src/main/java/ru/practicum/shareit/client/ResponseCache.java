@@ -0,0 +1,99 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш успешных ответов сервера на GET-запросы, отдельный для каждого маршрута.
+ * Ключ - путь, параметры запроса и ID пользователя.
+ * Размер и время жизни задаются свойствами shareit-server.cache.{route}.max-size и shareit-server.cache.{route}.ttl
+ */
+@Component
+public class ResponseCache {
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+    public static final String USERS = "users";
+    private static final String KEY_SEPARATOR = "|";
+
+    private final Map<String, Cache<String, ResponseEntity<Object>>> routes = new ConcurrentHashMap<>();
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCache(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Возвращает ответ из кэша или выполняет запрос и кэширует успешный ответ
+     *
+     * @param route      Маршрут (items, requests, users)
+     * @param path       Путь запроса
+     * @param userId     ID пользователя
+     * @param parameters Параметры запроса
+     * @param request    Запрос к серверу
+     * @return Ответ
+     */
+    public Mono<ResponseEntity<Object>> get(String route, String path, @Nullable Long userId,
+                                            @Nullable Map<String, Object> parameters,
+                                            Supplier<Mono<ResponseEntity<Object>>> request) {
+        Cache<String, ResponseEntity<Object>> cache = cache(route);
+        String key = path + KEY_SEPARATOR + userId + KEY_SEPARATOR + (parameters != null ? new TreeMap<>(parameters) : "");
+        ResponseEntity<Object> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return request.get()
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        cache.put(key, response);
+                    }
+                });
+    }
+
+    /**
+     * Удаляет из кэша маршрута все ответы по пути
+     *
+     * @param route Маршрут
+     * @param path  Путь запроса
+     */
+    public void invalidate(String route, String path) {
+        cache(route).asMap().keySet().removeIf(key -> key.startsWith(path + KEY_SEPARATOR));
+    }
+
+    /**
+     * Очищает кэш маршрута
+     *
+     * @param route Маршрут
+     */
+    public void invalidateAll(String route) {
+        cache(route).invalidateAll();
+    }
+
+    private Cache<String, ResponseEntity<Object>> cache(String route) {
+        return routes.computeIfAbsent(route, name -> {
+            Cache<String, ResponseEntity<Object>> cache = Caffeine.newBuilder()
+                    .maximumSize(environment.getProperty("shareit-server.cache." + name + ".max-size",
+                            Long.class, 10_000L))
+                    .expireAfterWrite(environment.getProperty("shareit-server.cache." + name + ".ttl",
+                            Duration.class, Duration.ofSeconds(5)))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway." + name);
+            return cache;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Общий пул соединений с сервером для всех клиентов шлюза
+ */
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Пул соединений с сервером
+     *
+     * @param maxConnections         Максимальное количество соединений
+     * @param pendingAcquireMaxCount Максимальная очередь запросов, ожидающих соединение
+     * @param pendingAcquireTimeout  Время ожидания свободного соединения
+     * @param maxIdleTime            Время жизни простаивающего соединения
+     * @return Пул соединений
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(
+            @Value("${shareit-server.pool.max-connections:500}") int maxConnections,
+            @Value("${shareit-server.pool.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${shareit-server.pool.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${shareit-server.pool.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Коннектор WebClient поверх общего пула, подхватывается WebClient.Builder
+     *
+     * @param connectionProvider Пул соединений
+     * @param connectTimeout     Время установки соединения
+     * @return Коннектор
+     */
+    @Bean
+    public ReactorClientHttpConnector shareItServerConnector(
+            ConnectionProvider connectionProvider,
+            @Value("${shareit-server.pool.connect-timeout:2s}") Duration connectTimeout) {
+        return new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis()));
+    }
+}
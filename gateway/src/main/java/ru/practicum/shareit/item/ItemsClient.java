@@ -2,36 +2,46 @@ package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Service
 public class ItemsClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private final ResponseCache responseCache;
 
     @Autowired
-    public ItemsClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemsClient(@Value("${shareit-server.url}") String serverUrl,
+                       @Value("${shareit-server.timeout.items:${shareit-server.timeout.default}}") Duration timeout,
+                       @Value("${shareit-server.pass-through:true}") boolean passThrough,
+                       WebClient.Builder builder,
+                       ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                timeout,
+                passThrough
         );
+        this.responseCache = responseCache;
     }
 
-    public ResponseEntity<Object> getItem(long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItem(long userId, Long itemId, String ifNoneMatch) {
+        return responseCache.get(ResponseCache.ITEMS, "/" + itemId, userId, null,
+                        () -> get("/" + itemId, userId))
+                .map(response -> checkNotModified(response, ifNoneMatch));
     }
 
-    public ResponseEntity<Object> getItemsByUserId(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItemsByUserId(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -39,28 +49,49 @@ public class ItemsClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> search(long userId, String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> search(long userId, String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return responseCache.get(ResponseCache.ITEMS, "/search", userId, parameters,
+                () -> get("/search?text={text}&from={from}&size={size}", userId, parameters));
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> createItem(long userId, ItemDto itemDto) {
+        return post("", userId, itemDto)
+                .doOnSuccess(response -> {
+                    responseCache.invalidate(ResponseCache.ITEMS, "/search");
+                    if (itemDto.getRequestId() != null) {
+                        responseCache.invalidate(ResponseCache.REQUESTS, "/" + itemDto.getRequestId());
+                    }
+                });
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemDto itemDto) {
+        return patch("/" + itemId, userId, itemDto)
+                .doOnSuccess(response -> invalidateItem(itemId));
     }
 
-    public ResponseEntity<Object> createComment(long userId, long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    public Mono<ResponseEntity<Object>> createComment(long userId, long itemId, CommentDto commentDto) {
+        return post("/" + itemId + "/comment", userId, commentDto)
+                .doOnSuccess(response -> responseCache.invalidate(ResponseCache.ITEMS, "/" + itemId));
     }
 
-    public ResponseEntity<Object> deleteItem(long itemId) {
-        return delete("/" + itemId);
+    public Mono<ResponseEntity<Object>> deleteItem(long itemId) {
+        return delete("/" + itemId)
+                .doOnSuccess(response -> invalidateItem(itemId));
+    }
+
+    /**
+     * Сбрасывает кэшированные ответы, в которых может присутствовать вещь
+     *
+     * @param itemId ID вещи
+     */
+    private void invalidateItem(long itemId) {
+        responseCache.invalidate(ResponseCache.ITEMS, "/" + itemId);
+        responseCache.invalidate(ResponseCache.ITEMS, "/search");
+        responseCache.invalidateAll(ResponseCache.REQUESTS);
     }
 }
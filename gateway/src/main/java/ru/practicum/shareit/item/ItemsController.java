@@ -2,10 +2,12 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -26,13 +28,16 @@ public class ItemsController {
      * Запрос на вывод вещи по ID вещи
      * @param userId ID пользователя
      * @param itemId ID вещи
-     * @return Вещь
+     * @param ifNoneMatch ETag ранее полученной версии вещи
+     * @return Вещь или 304, если вещь не изменилась
      */
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Object>> getItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @PathVariable Long itemId,
+                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                String ifNoneMatch) {
         log.info("Get item {}, userId={}", itemId, userId);
-        return itemsClient.getItem(userId, itemId);
+        return itemsClient.getItem(userId, itemId, ifNoneMatch);
     }
 
     /**
@@ -43,12 +48,12 @@ public class ItemsController {
      * @return Вещи
      */
     @GetMapping
-    public ResponseEntity<Object> getItemsByUserId(@RequestHeader("X-Sharer-User-Id")
-                                                   long userId,
-                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                   Integer from,
-                                                   @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                   Integer size) {
+    public Mono<ResponseEntity<Object>> getItemsByUserId(@RequestHeader("X-Sharer-User-Id")
+                                                         long userId,
+                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                         Integer from,
+                                                         @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                         Integer size) {
         log.info("Get item by user id {}, from={}, size={}", userId, from, size);
         return itemsClient.getItemsByUserId(userId, from, size);
     }
@@ -62,11 +67,11 @@ public class ItemsController {
      * @return
      */
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestHeader("X-Sharer-User-Id") long userId, @RequestParam String text,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                         Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10")
-                                         Integer size) {
+    public Mono<ResponseEntity<Object>> search(@RequestHeader("X-Sharer-User-Id") long userId, @RequestParam String text,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                               Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10")
+                                               Integer size) {
         log.info("Get search item {}, userId {}, from {}, size {}", text, userId, from, size);
         return itemsClient.search(userId, text, from, size);
     }
@@ -78,8 +83,8 @@ public class ItemsController {
      * @return Созданная вещь
      */
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @RequestBody @Valid ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestBody @Valid ItemDto itemDto) {
         log.info("Creating item {}, userId={}", itemDto, userId);
         return itemsClient.createItem(userId, itemDto);
     }
@@ -92,9 +97,9 @@ public class ItemsController {
      * @return Обновленная вещь
      */
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable long itemId,
-                                             @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable long itemId,
+                                                   @RequestBody ItemDto itemDto) {
         log.info("Update item {}, itemId {}, userId {}", itemDto, itemId, userId);
         return itemsClient.updateItem(userId, itemId, itemDto);
     }
@@ -107,9 +112,9 @@ public class ItemsController {
      * @return Созданный комментарий
      */
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @PathVariable long itemId,
-                                                @RequestBody @Valid CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> createComment(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @PathVariable long itemId,
+                                                      @RequestBody @Valid CommentDto commentDto) {
         log.info("Create comment {}, userId {}, itemId {}", commentDto, userId, itemId);
         return itemsClient.createComment(userId, itemId, commentDto);
     }
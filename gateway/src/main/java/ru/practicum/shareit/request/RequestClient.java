@@ -2,39 +2,47 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.RequestDto;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
+    private final ResponseCache responseCache;
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl,
+                         @Value("${shareit-server.timeout.requests:${shareit-server.timeout.default}}") Duration timeout,
+                         @Value("${shareit-server.pass-through:true}") boolean passThrough,
+                         WebClient.Builder builder,
+                         ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                timeout,
+                passThrough
         );
+        this.responseCache = responseCache;
     }
 
-    public ResponseEntity<Object> createRequest(long userId, RequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createRequest(long userId, RequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getRequestByUserId(long userId) {
+    public Mono<ResponseEntity<Object>> getRequestByUserId(long userId) {
         return get("/", userId);
     }
 
-    public ResponseEntity<Object> getAllRequestByUserId(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllRequestByUserId(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -42,7 +50,8 @@ public class RequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestByRequestId(long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getRequestByRequestId(long userId, Long requestId) {
+        return responseCache.get(ResponseCache.REQUESTS, "/" + requestId, userId, null,
+                () -> get("/" + requestId, userId));
     }
 }
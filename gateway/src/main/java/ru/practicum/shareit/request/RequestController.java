@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.RequestDto;
 
 import javax.validation.Valid;
@@ -28,8 +29,8 @@ public class RequestController {
      * @return Созданный запрос на вещь
      */
     @PostMapping
-    public ResponseEntity<Object> createRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @RequestBody @Valid RequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody @Valid RequestDto requestDto) {
         log.info("Creating request {}, userId={}", requestDto, userId);
         return requestClient.createRequest(userId, requestDto);
     }
@@ -40,7 +41,7 @@ public class RequestController {
      * @return Запросы на вещи пользователя
      */
     @GetMapping
-    public ResponseEntity<Object> getRequestByUserId(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> getRequestByUserId(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get request by user id {}", userId);
         return requestClient.getRequestByUserId(userId);
     }
@@ -53,12 +54,12 @@ public class RequestController {
      * @return Запросы на вещи
      */
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequestByUserId(@RequestHeader("X-Sharer-User-Id")
-                                                        long userId,
-                                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                        Integer from,
-                                                        @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                        Integer size) {
+    public Mono<ResponseEntity<Object>> getAllRequestByUserId(@RequestHeader("X-Sharer-User-Id")
+                                                              long userId,
+                                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                              Integer from,
+                                                              @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                              Integer size) {
         log.info("Get request all by user id {}, from {}, size {}", userId, from, size);
         return requestClient.getAllRequestByUserId(userId, from, size);
     }
@@ -70,8 +71,8 @@ public class RequestController {
      * @return Запрос на вещь
      */
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestByRequestId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                        @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestByRequestId(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @PathVariable Long requestId) {
         log.info("Get booking {}, userId={}", requestId, userId);
         return requestClient.getRequestByRequestId(userId, requestId);
     }
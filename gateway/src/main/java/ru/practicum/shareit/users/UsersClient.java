@@ -2,32 +2,40 @@ package ru.practicum.shareit.users;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.users.dto.UserDto;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Service
 public class UsersClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
+    private final ResponseCache responseCache;
 
     @Autowired
-    public UsersClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UsersClient(@Value("${shareit-server.url}") String serverUrl,
+                       @Value("${shareit-server.timeout.users:${shareit-server.timeout.default}}") Duration timeout,
+                       @Value("${shareit-server.pass-through:true}") boolean passThrough,
+                       WebClient.Builder builder,
+                       ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                timeout,
+                passThrough
         );
+        this.responseCache = responseCache;
     }
 
-    public ResponseEntity<Object> getAllUsers(Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllUsers(Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -35,19 +43,29 @@ public class UsersClient extends BaseClient {
         return get("", null, parameters);
     }
 
-    public ResponseEntity<Object> getUserByUserId(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getUserByUserId(Long userId) {
+        return responseCache.get(ResponseCache.USERS, "/" + userId, null, null,
+                () -> get("/" + userId));
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public Mono<ResponseEntity<Object>> updateUser(long userId, UserDto userDto) {
+        return patch("/" + userId, userDto)
+                .doOnSuccess(response -> {
+                    responseCache.invalidate(ResponseCache.USERS, "/" + userId);
+                    responseCache.invalidateAll(ResponseCache.ITEMS);
+                });
     }
 
-    public ResponseEntity<Object> deleteUser(long userId) {
-        return delete("/" + userId);
+    public Mono<ResponseEntity<Object>> deleteUser(long userId) {
+        return delete("/" + userId)
+                .doOnSuccess(response -> {
+                    responseCache.invalidate(ResponseCache.USERS, "/" + userId);
+                    responseCache.invalidateAll(ResponseCache.ITEMS);
+                    responseCache.invalidateAll(ResponseCache.REQUESTS);
+                });
     }
 }
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.users.dto.UserDto;
 
 import javax.validation.Valid;
@@ -28,10 +29,10 @@ public class UsersController {
      * @return Пользователи
      */
     @GetMapping
-    public ResponseEntity<Object> findAll(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                          Integer from,
-                                          @Positive @RequestParam(name = "size", defaultValue = "10")
-                                          Integer size) {
+    public Mono<ResponseEntity<Object>> findAll(@PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                Integer from,
+                                                @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                Integer size) {
         log.info("Get user all, from={}, size={}", from, size);
         return usersClient.getAllUsers(from, size);
     }
@@ -42,7 +43,7 @@ public class UsersController {
      * @return Пользователь
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserByUserId(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> getUserByUserId(@PathVariable long userId) {
         log.info("Get user by user id {}", userId);
         return usersClient.getUserByUserId(userId);
     }
@@ -53,7 +54,7 @@ public class UsersController {
      * @return Созданный пользователь
      */
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody @Valid UserDto userDto) {
         return usersClient.createUser(userDto);
     }
 
@@ -64,7 +65,7 @@ public class UsersController {
      * @return Обновленный пользователь
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@PathVariable long id, @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable long id, @RequestBody UserDto userDto) {
         return usersClient.updateUser(id, userDto);
     }
 
@@ -74,7 +75,7 @@ public class UsersController {
      * @return Статус удаление
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long id) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable long id) {
         return usersClient.deleteUser(id);
     }
 }
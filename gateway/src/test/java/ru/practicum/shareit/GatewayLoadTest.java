@@ -0,0 +1,104 @@
+package ru.practicum.shareit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пропускная способность шлюза при TOMCAT_THREADS потоках Tomcat и сервере, отвечающем за SERVER_DELAY.
+ * Если поток ждет ответа сервера, шлюз обработает не больше TOMCAT_THREADS / SERVER_DELAY запросов в секунду.
+ * Запросы к серверу неблокирующие, поэтому пропускная способность должна быть в разы выше этой границы
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=" + GatewayLoadTest.TOMCAT_THREADS,
+        "server.tomcat.threads.min-spare=" + GatewayLoadTest.TOMCAT_THREADS,
+        "logging.level.org.springframework.web.reactive.function.client.ExchangeFunctions=INFO"
+})
+class GatewayLoadTest {
+    static final int TOMCAT_THREADS = 4;
+    private static final Duration SERVER_DELAY = Duration.ofSeconds(1);
+    private static final int REQUESTS = 200;
+    private static final int WARMUP_REQUESTS = 50;
+    private static final double MIN_SPEEDUP = 3;
+    private static final MockWebServer SERVER = new MockWebServer();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) throws IOException {
+        SERVER.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("[]")
+                        .setHeadersDelay(SERVER_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        SERVER.start();
+        registry.add("shareit-server.url", () -> SERVER.url("").toString().replaceAll("/$", ""));
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        SERVER.shutdown();
+    }
+
+    @Test
+    void throughputIsNotBoundByTomcatThreads() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/items?from=0&size=10"))
+                .header("X-Sharer-User-Id", "1")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        send(client, request, WARMUP_REQUESTS);
+
+        long start = System.nanoTime();
+        List<Integer> statuses = send(client, request, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double throughput = REQUESTS / seconds;
+        double blockingLimit = TOMCAT_THREADS / (SERVER_DELAY.toMillis() / 1000.0);
+        assertTrue(statuses.stream().allMatch(status -> status == 200), () -> "Статусы ответов: " + statuses);
+        assertTrue(throughput >= blockingLimit * MIN_SPEEDUP, () -> String.format(
+                "%.0f запросов в секунду, предел при блокирующих вызовах %.0f", throughput, blockingLimit));
+    }
+
+    /**
+     * Отправляет все запросы сразу и ждет ответов
+     */
+    private static List<Integer> send(HttpClient client, HttpRequest request, int count) {
+        List<CompletableFuture<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode));
+        }
+        List<Integer> statuses = new ArrayList<>();
+        responses.forEach(response -> statuses.add(response.join()));
+        return statuses;
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.item.ItemsClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Клиенты шлюза против заглушки сервера: таймауты, заголовки ответа, ETag и сброс кэша
+ */
+class BaseClientTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+    private static final long USER_ID = 1;
+    private static final String ITEM = "{\"id\": 1, \"name\": \"item\"}";
+    private static final String ETAG = "\"1-0\"";
+
+    private final MockWebServer server = new MockWebServer();
+    private ItemsClient itemsClient;
+    private BookingClient bookingClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server.start();
+        String url = server.url("").toString().replaceAll("/$", "");
+        ResponseCache responseCache = new ResponseCache(new MockEnvironment(), new SimpleMeterRegistry());
+        itemsClient = new ItemsClient(url, TIMEOUT, true, WebClient.builder(), responseCache);
+        bookingClient = new BookingClient(url, TIMEOUT, true, WebClient.builder(), responseCache);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void slowServerResponseIsGatewayTimeout() {
+        server.enqueue(json(ITEM).setHeadersDelay(TIMEOUT.toMillis() * 2, TimeUnit.MILLISECONDS));
+
+        ResponseEntity<Object> response = bookingClient.getBooking(USER_ID, 1L, null).block();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void hopByHopHeadersAreNotRelayed() {
+        server.enqueue(json(ITEM)
+                .setHeader(HttpHeaders.CONNECTION, "keep-alive")
+                .setHeader("Keep-Alive", "timeout=60")
+                .setHeader(HttpHeaders.ETAG, ETAG)
+                .setHeader("X-Query-Count", "2"));
+
+        ResponseEntity<Object> response = bookingClient.getBooking(USER_ID, 1L, null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        HttpHeaders headers = response.getHeaders();
+        assertFalse(headers.containsKey(HttpHeaders.CONNECTION));
+        assertFalse(headers.containsKey("Keep-Alive"));
+        assertFalse(headers.containsKey(HttpHeaders.TRANSFER_ENCODING));
+        assertFalse(headers.containsKey(HttpHeaders.CONTENT_LENGTH));
+        assertEquals(ETAG, headers.getETag());
+        assertEquals("2", headers.getFirst("X-Query-Count"));
+        assertEquals(ITEM, new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ifNoneMatchIsRelayedToServerAndNotModifiedBack() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, ETAG));
+
+        ResponseEntity<Object> response = bookingClient.getBooking(USER_ID, 1L, ETAG).block();
+
+        RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("/bookings/1", request.getPath());
+        assertEquals(ETAG, request.getHeader(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(String.valueOf(USER_ID), request.getHeader("X-Sharer-User-Id"));
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+    }
+
+    @Test
+    void cachedItemIsCheckedAgainstIfNoneMatch() {
+        server.enqueue(json(ITEM).setHeader(HttpHeaders.ETAG, ETAG));
+
+        ResponseEntity<Object> first = itemsClient.getItem(USER_ID, 1L, null).block();
+        ResponseEntity<Object> notModified = itemsClient.getItem(USER_ID, 1L, "W/\"0-0\", " + ETAG).block();
+        ResponseEntity<Object> otherVersion = itemsClient.getItem(USER_ID, 1L, "\"1-1\"").block();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(ETAG, notModified.getHeaders().getETag());
+        assertNull(notModified.getBody());
+        assertEquals(HttpStatus.OK, otherVersion.getStatusCode());
+        assertEquals(ITEM, new String((byte[]) otherVersion.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void updateInvalidatesCachedItemAndSearch() throws InterruptedException {
+        server.enqueue(json(ITEM));
+        server.enqueue(json("[" + ITEM + "]"));
+        server.enqueue(json(ITEM));
+        server.enqueue(json("{\"id\": 1, \"name\": \"updated\"}"));
+        server.enqueue(json("[]"));
+
+        itemsClient.getItem(USER_ID, 1L, null).block();
+        itemsClient.search(USER_ID, "item", 0, 10).block();
+        itemsClient.getItem(USER_ID, 1L, null).block();
+        itemsClient.search(USER_ID, "item", 0, 10).block();
+        assertEquals(2, server.getRequestCount());
+
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("updated");
+        itemsClient.updateItem(USER_ID, 1L, itemDto).block();
+        ResponseEntity<Object> item = itemsClient.getItem(USER_ID, 1L, null).block();
+        ResponseEntity<Object> search = itemsClient.search(USER_ID, "item", 0, 10).block();
+
+        assertEquals(5, server.getRequestCount());
+        server.takeRequest(5, TimeUnit.SECONDS);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        assertEquals("PATCH", server.takeRequest(5, TimeUnit.SECONDS).getMethod());
+        assertEquals("{\"id\": 1, \"name\": \"updated\"}", new String((byte[]) item.getBody(), StandardCharsets.UTF_8));
+        assertEquals("[]", new String((byte[]) search.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void errorResponseIsNotCached() {
+        server.enqueue(json("{\"error\": \"not found\"}").setResponseCode(404));
+        server.enqueue(json(ITEM));
+
+        ResponseEntity<Object> notFound = itemsClient.getItem(USER_ID, 1L, null).block();
+        ResponseEntity<Object> found = itemsClient.getItem(USER_ID, 1L, null).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody(body);
+    }
+}
@@ -1,12 +1,23 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingStateSpec;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.utilites.ErrorResponse;
+import ru.practicum.shareit.utilites.Versioned;
 
+import javax.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Контроллер бронирования
@@ -25,8 +36,8 @@ public class BookingController {
      * @return Бронирование
      */
     @PostMapping
-    public Booking create(@RequestHeader("X-Sharer-User-Id") long userId,
-                          @RequestBody BookingDto bookingDto) {
+    public BookingDtoOut create(@RequestHeader("X-Sharer-User-Id") long userId,
+                                @RequestBody BookingDto bookingDto) {
         return bookingService.create(userId, bookingDto);
     }
 
@@ -39,23 +50,58 @@ public class BookingController {
      * @return Бронирование
      */
     @PatchMapping("/{bookingId}")
-    public Booking responseToRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                     @PathVariable long bookingId,
-                                     @RequestParam boolean approved) {
+    public BookingDtoOut responseToRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @PathVariable long bookingId,
+                                           @RequestParam boolean approved) {
         return bookingService.responseToRequest(userId, bookingId, approved);
     }
 
+    /**
+     * Пакетное бронирование
+     *
+     * @param userId          ID бронирующего пользователя
+     * @param bookingBatchDto Параметры бронирований
+     * @return Бронирования в порядке элементов пакета
+     */
+    @PostMapping("/batch")
+    public List<BookingDtoOut> createBatch(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @RequestBody @Valid BookingBatchDto bookingBatchDto) {
+        return bookingService.createBatch(userId, bookingBatchDto);
+    }
+
+    /**
+     * Пакетное подтверждение или отклонение бронирований
+     *
+     * @param userId                  ID владельца вещей
+     * @param bookingApprovalBatchDto Решения по бронированиям
+     * @return Бронирования в порядке элементов пакета
+     */
+    @PatchMapping("/batch")
+    public List<BookingDtoOut> responseToRequestBatch(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody @Valid BookingApprovalBatchDto bookingApprovalBatchDto) {
+        return bookingService.responseToRequestBatch(userId, bookingApprovalBatchDto);
+    }
+
     /**
      * Поиск бронирования по ID
      *
      * @param userId    ID пользователя осуществляющего поиск
      * @param bookingId ID бронирования
-     * @return Бронирование
+     * @param request   Запрос, для проверки If-None-Match
+     * @return Бронирование или 304, если ETag совпал
      */
     @GetMapping("/{bookingId}")
-    public Booking findBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
-                                   @PathVariable long bookingId) {
-        return bookingService.findBookingById(userId, bookingId);
+    public ResponseEntity<BookingDtoOut> findBookingById(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                         @PathVariable long bookingId,
+                                                         WebRequest request) {
+        Versioned<BookingDtoOut> booking = bookingService.findBookingById(userId, bookingId,
+                request::checkNotModified);
+        if (booking.isNotModified()) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(booking.getEtag())
+                .body(booking.getBody());
     }
 
     /**
@@ -63,14 +109,21 @@ public class BookingController {
      *
      * @param userId ID пользователя
      * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
      * @return Бронирование
      */
     @GetMapping
-    public List<Booking> findBookingAuthor(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestParam(defaultValue = "ALL") String state,
-                                           @RequestParam(defaultValue = "0") int from,
-                                           @RequestParam(defaultValue = "10") int size) {
-        return bookingService.findBookingAuthor(userId, state, from, size);
+    public ResponseEntity<Object> findBookingAuthor(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam(defaultValue = "ALL") String state,
+                                                    @RequestParam(defaultValue = "0") int from,
+                                                    @RequestParam(defaultValue = "10") int size,
+                                                    @RequestParam(required = false) String after) {
+        Optional<BookingStatus> status = BookingStateSpec.parse(state);
+        if (status.isEmpty()) {
+            return unknownState(state);
+        }
+        List<BookingDtoOut> bookings = bookingService.findBookingAuthor(userId, status.get(), from, size, after);
+        return withNextCursor(bookings, status.get(), size);
     }
 
     /**
@@ -78,13 +131,49 @@ public class BookingController {
      *
      * @param userId ID Пользователя
      * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
      * @return Бронирование
      */
     @GetMapping("/owner")
-    public List<Booking> findBookingOwner(@RequestHeader("X-Sharer-User-Id") long userId,
-                                          @RequestParam(defaultValue = "ALL") String state,
-                                          @RequestParam(defaultValue = "0") int from,
-                                          @RequestParam(defaultValue = "10") int size) {
-        return bookingService.findBookingOwner(userId, state, from, size);
+    public ResponseEntity<Object> findBookingOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestParam(defaultValue = "ALL") String state,
+                                                   @RequestParam(defaultValue = "0") int from,
+                                                   @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(required = false) String after) {
+        Optional<BookingStatus> status = BookingStateSpec.parse(state);
+        if (status.isEmpty()) {
+            return unknownState(state);
+        }
+        List<BookingDtoOut> bookings = bookingService.findBookingOwner(userId, status.get(), from, size, after);
+        return withNextCursor(bookings, status.get(), size);
+    }
+
+    /**
+     * Добавляет к ответу курсор следующей страницы, если выводятся все бронирования
+     *
+     * @param bookings Бронирования текущей страницы
+     * @param state    Статус бронирования
+     * @param size     Количество элементов на странице
+     * @return Ответ с бронированиями
+     */
+    private ResponseEntity<Object> withNextCursor(List<BookingDtoOut> bookings, BookingStatus state, int size) {
+        String next = state == BookingStatus.ALL ? BookingCursor.next(bookings, size) : null;
+        if (next == null) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok()
+                .header(BookingCursor.HEADER, next)
+                .body(bookings);
+    }
+
+    /**
+     * Ответ 400 на неизвестный state. Частая ошибка клиента, поэтому формируется без исключения
+     *
+     * @param state Статус бронирования из запроса
+     * @return Ответ с текстом ошибки
+     */
+    private ResponseEntity<Object> unknownState(String state) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Unknown state: " + state));
     }
 }
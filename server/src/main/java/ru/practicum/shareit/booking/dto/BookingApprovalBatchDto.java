@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class BookingApprovalBatchDto {
+    public static final int MAX_SIZE = 100;
+
+    @NotEmpty
+    @Size(max = MAX_SIZE)
+    private List<@Valid @NotNull BookingApprovalDto> approvals;
+}
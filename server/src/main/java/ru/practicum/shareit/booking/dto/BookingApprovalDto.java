@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+public class BookingApprovalDto {
+    @NotNull
+    private Long bookingId;
+    @NotNull
+    private Boolean approved;
+}
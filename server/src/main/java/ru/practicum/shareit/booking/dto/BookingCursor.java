@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.booking.exception.IncorrectCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Курсор постраничного вывода бронирований: позиция (окончание бронирования, ID) последнего
+ * выведенного элемента. Передается клиенту в виде непрозрачной строки
+ */
+@Data
+public class BookingCursor {
+    public static final String HEADER = "X-Next-Cursor";
+
+    private final LocalDateTime end;
+    private final long id;
+
+    /**
+     * Курсор на следующую страницу
+     *
+     * @param bookings Бронирования текущей страницы
+     * @param size     Количество элементов на странице
+     * @return Курсор или null, если страница последняя
+     */
+    public static String next(List<BookingDtoOut> bookings, int size) {
+        if (bookings.size() < size) {
+            return null;
+        }
+        BookingDtoOut last = bookings.get(bookings.size() - 1);
+        return encode(new BookingCursor(last.getEnd(), last.getId()));
+    }
+
+    public static String encode(BookingCursor cursor) {
+        String value = cursor.getEnd() + "_" + cursor.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('_');
+            return new BookingCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IncorrectCursor("Некорректный курсор: " + token);
+        }
+    }
+}
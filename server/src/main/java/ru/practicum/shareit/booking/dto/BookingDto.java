@@ -2,11 +2,15 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.Data;
 
+import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Data
 public class BookingDto {
+    @NotNull
     private Long itemId;
+    @NotNull
     private LocalDateTime start;
+    @NotNull
     private LocalDateTime end;
 }
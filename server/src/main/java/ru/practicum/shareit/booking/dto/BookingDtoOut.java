@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование для вывода. Содержит только поля, которые отдаются клиенту,
+ * и заполняется напрямую из JPQL-запроса без загрузки сущностей
+ */
+@Data
+public class BookingDtoOut {
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingStatus status;
+    private ItemInfo item;
+    private BookerInfo booker;
+
+    public BookingDtoOut(Long id,
+                         LocalDateTime start,
+                         LocalDateTime end,
+                         BookingStatus status,
+                         Long itemId,
+                         String itemName,
+                         Long bookerId) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.item = new ItemInfo(itemId, itemName);
+        this.booker = new BookerInfo(bookerId);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemInfo {
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BookerInfo {
+        private Long id;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -18,4 +19,27 @@ public class BookingMapper {
         booking.setStatus(BookingStatus.WAITING);
         return booking;
     }
+
+    public static BookingView mapToBookingView(Booking booking) {
+        BookingView bookingView = new BookingView();
+        bookingView.setId(booking.getId());
+        bookingView.setOwnerId(booking.getItem().getUser().getId());
+        bookingView.setBookerId(booking.getBooker().getId());
+        bookingView.setItemId(booking.getItem().getId());
+        bookingView.setItemName(booking.getItem().getName());
+        bookingView.setStart(booking.getStart());
+        bookingView.setEnd(booking.getEnd());
+        bookingView.setStatus(booking.getStatus());
+        return bookingView;
+    }
+
+    public static BookingDtoOut mapToBookingDtoOut(Booking booking) {
+        return new BookingDtoOut(booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus(),
+                booking.getItem().getId(),
+                booking.getItem().getName(),
+                booking.getBooker().getId());
+    }
 }
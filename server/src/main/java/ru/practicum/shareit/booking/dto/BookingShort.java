@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция бронирования для последнего и следующего бронирования предмета
+ */
+public interface BookingShort {
+    Long getId();
+
+    Long getBookerId();
+
+    Long getItemId();
+
+    LocalDateTime getStart();
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.exception;
+
+public class IncorrectCursor extends RuntimeException {
+    public IncorrectCursor(String s) {
+        super(s);
+    }
+}
@@ -15,11 +15,12 @@ import java.time.LocalDateTime;
 @Table(name = "booking")
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     private Item item;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     private User booker;
     @Column(name = "start_booking")
     private LocalDateTime start;
@@ -27,4 +28,6 @@ public class Booking {
     private LocalDateTime end;
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+    @Version
+    private Long version;
 }
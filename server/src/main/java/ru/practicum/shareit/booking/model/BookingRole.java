@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Роль пользователя в списке бронирований и поле BookingView, по которому отбираются его бронирования
+ */
+@Getter
+@RequiredArgsConstructor
+public enum BookingRole {
+    BOOKER(BookingView.BOOKER_ID),
+    OWNER(BookingView.OWNER_ID);
+
+    private final String attribute;
+}
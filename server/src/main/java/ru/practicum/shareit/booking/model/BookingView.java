@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Денормализованная запись бронирования для списков бронирований автора и владельца.
+ * ID совпадает с ID бронирования, запись обновляется в той же транзакции, что и бронирование
+ */
+@Data
+@Entity
+@Table(name = "booking_view")
+public class BookingView implements Persistable<Long> {
+    /**
+     * Имена атрибутов для Criteria-запросов BookingViewRepositoryImpl
+     */
+    public static final String ID = "id";
+    public static final String OWNER_ID = "ownerId";
+    public static final String BOOKER_ID = "bookerId";
+    public static final String ITEM_ID = "itemId";
+    public static final String ITEM_NAME = "itemName";
+    public static final String START = "start";
+    public static final String END = "end";
+    public static final String STATUS = "status";
+
+    @Id
+    private Long id;
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private String itemName;
+    @Column(name = "start_booking")
+    private LocalDateTime start;
+    @Column(name = "end_booking")
+    private LocalDateTime end;
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+    @Transient
+    private boolean persisted;
+
+    /**
+     * ID задается вручную, поэтому новизна записи отслеживается отдельно, чтобы save не делал лишний select
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -1,94 +1,59 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    @Query("select b " +
+    @Query("select b.id as id, b.booker.id as bookerId, b.item.id as itemId, b.start as start " +
             "from Booking as b " +
-            "join b.booker as u " +
-            "where u.id = ?1 and b.status = ?2 " +
-            "order by b.end desc ")
-    List<Booking> findAllByBookerIdAndStatus(long userId, BookingStatus state, PageRequest page);
+            "where b.item.id in ?1 and b.status <> ?3 " +
+            "and b.start = (select max(bl.start) " +
+            "from Booking as bl " +
+            "where bl.item.id = b.item.id and bl.start < ?2 and bl.status <> ?3)")
+    List<BookingShort> findLastByItemIdIn(Collection<Long> itemIds, LocalDateTime time, BookingStatus status);
 
-    @Query("select b " +
+    @Query("select b.id as id, b.booker.id as bookerId, b.item.id as itemId, b.start as start " +
             "from Booking as b " +
-            "join b.booker as u " +
-            "where u.id = ?1 " +
-            "order by b.end desc ")
-    List<Booking> findAllByBookerId(long userId, PageRequest page);
-
-    @Query("select b " +
+            "where b.item.id in ?1 and b.status <> ?3 and b.end > ?2 " +
+            "and b.start = (select min(bn.start) " +
+            "from Booking as bn " +
+            "where bn.item.id = b.item.id and bn.start > ?2 and bn.end > ?2 and bn.status <> ?3)")
+    // Условие по end избыточно для start > ?2, но позволяет Postgres отсечь секции booking, закончившиеся раньше
+    List<BookingShort> findNextByItemIdIn(Collection<Long> itemIds, LocalDateTime time, BookingStatus status);
+
+    @Query("select case when count(b) > 0 then true else false end " +
             "from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 " +
-            "order by b.end desc ")
-    List<Booking> findAllByOwnerId(long userId, PageRequest page);
+            "where b.item.id = ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "and b.start < ?3 and b.end > ?2")
+    boolean existsApprovedOverlap(long itemId, LocalDateTime start, LocalDateTime end);
 
     @Query("select b " +
             "from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and b.end < ?2 " +
-            "order by b.end desc ")
-    List<Booking> findAllByOwnerIdAndEndBefore(long bookerId, LocalDateTime time, PageRequest page);
+            "join fetch b.item " +
+            "where b.id = ?1")
+    Optional<Booking> findByIdWithItem(long bookingId);
 
-    @Query("select b " +
-            "from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and b.status = ?2 " +
-            "order by b.end desc ")
-    List<Booking> findAllByOwnerIdAndStatus(long userId, BookingStatus state, PageRequest page);
+    Optional<Booking> findFirst1ByBookerIdAndItemId(long bookerId, long itemId);
 
     @Query("select b " +
             "from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and b.start < ?2 and b.end > ?2 " +
-            "order by b.end desc ")
-    List<Booking> findAllByOwnerIdAndStartBeforeAndEndAfter(long bookerId, LocalDateTime time, PageRequest page);
-
-    List<Booking> findAllByBookerIdAndStatusInAndStartAfterOrderByStartDesc(long userId,
-                                                                            List<BookingStatus> status,
-                                                                            LocalDateTime time,
-                                                                            PageRequest page);
+            "join fetch b.item " +
+            "where b.id in ?1")
+    List<Booking> findAllByIdInWithItem(Collection<Long> bookingIds);
 
     @Query("select b " +
             "from Booking as b " +
-            "join b.item as i " +
-            "join i.user as u " +
-            "where u.id = ?1 and b.status in (?2, ?3) and b.start > ?4 " +
-            "order by b.start desc ")
-    List<Booking> findAllByOwnerIdAndStatusInAndStartBeforeOrderByStartDesc(long userId,
-                                                                            BookingStatus status1,
-                                                                            BookingStatus status2,
-                                                                            LocalDateTime time,
-                                                                            PageRequest page);
-
-    Booking findFirst1ByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(long id,
-                                                                         LocalDateTime time,
-                                                                         BookingStatus status);
-
-    Booking findFirst1ByItemIdAndStartAfterAndStatusNotOrderByStart(long id,
-                                                                    LocalDateTime time,
-                                                                    BookingStatus status);
-
-    Optional<Booking> findFirst1ByBookerIdAndItemId(long bookerId, long itemId);
-
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(long bookerId,
-                                                             LocalDateTime time,
-                                                             LocalDateTime time1,
-                                                             PageRequest page);
-
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByEndDesc(long bookerId, LocalDateTime time, PageRequest page);
+            "where b.item.id in ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "and b.end > ?2")
+    List<Booking> findApprovedByItemIdInAndEndAfter(Collection<Long> itemIds, LocalDateTime end);
 }
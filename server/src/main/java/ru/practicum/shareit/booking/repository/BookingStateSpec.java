@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Условие, граница по времени и сортировка списка бронирований для значения state.
+ * Спецификации вычисляются один раз и общие для бронирующего и владельца, новый state добавляется здесь
+ */
+@Getter
+public final class BookingStateSpec {
+    private static final Map<String, BookingStatus> STATES = Arrays.stream(BookingStatus.values())
+            .collect(Collectors.toMap(Enum::name, Function.identity()));
+    private static final Map<BookingStatus, BookingStateSpec> SPECS = new EnumMap<>(BookingStatus.class);
+
+    static {
+        SPECS.put(BookingStatus.ALL, new BookingStateSpec((cb, view, now) -> null, BookingView.END, BookingView.ID));
+        SPECS.put(BookingStatus.PAST, new BookingStateSpec((cb, view, now) ->
+                cb.lessThan(view.<LocalDateTime>get(BookingView.END), now), BookingView.END));
+        SPECS.put(BookingStatus.FUTURE, new BookingStateSpec((cb, view, now) -> cb.and(
+                view.get(BookingView.STATUS).in(BookingStatus.APPROVED, BookingStatus.WAITING),
+                cb.greaterThan(view.<LocalDateTime>get(BookingView.START), now)), BookingView.START));
+        SPECS.put(BookingStatus.CURRENT, new BookingStateSpec((cb, view, now) -> cb.and(
+                cb.lessThan(view.<LocalDateTime>get(BookingView.START), now),
+                cb.greaterThan(view.<LocalDateTime>get(BookingView.END), now)), BookingView.END));
+        for (BookingStatus status : List.of(BookingStatus.WAITING,
+                BookingStatus.APPROVED,
+                BookingStatus.CANCELED,
+                BookingStatus.REJECTED)) {
+            SPECS.put(status, new BookingStateSpec((cb, view, now) -> cb.equal(view.get(BookingView.STATUS), status),
+                    BookingView.END));
+        }
+    }
+
+    private final Restriction restriction;
+    private final List<String> orderByDesc;
+
+    private BookingStateSpec(Restriction restriction, String... orderByDesc) {
+        this.restriction = restriction;
+        this.orderByDesc = List.of(orderByDesc);
+    }
+
+    /**
+     * Разбор state без исключений
+     *
+     * @param state Статус бронирования из запроса
+     * @return Статус или пустой Optional для неизвестного значения
+     */
+    public static Optional<BookingStatus> parse(String state) {
+        return Optional.ofNullable(STATES.get(state));
+    }
+
+    public static BookingStateSpec of(BookingStatus status) {
+        return SPECS.get(status);
+    }
+
+    @FunctionalInterface
+    public interface Restriction {
+        /**
+         * @return Условие или null, если state не ограничивает выборку
+         */
+        Predicate toPredicate(CriteriaBuilder cb, Root<BookingView> view, LocalDateTime now);
+    }
+}
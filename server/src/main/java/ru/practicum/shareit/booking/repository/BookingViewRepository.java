@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+
+public interface BookingViewRepository extends JpaRepository<BookingView, Long>, BookingViewRepositoryCustom {
+    @Modifying
+    @Transactional
+    @Query("update BookingView as v set v.status = ?2 where v.id = ?1")
+    void updateStatus(long bookingId, BookingStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update BookingView as v set v.itemName = ?2 where v.itemId = ?1")
+    void updateItemName(long itemId, String itemName);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.util.List;
+
+public interface BookingViewRepositoryCustom {
+    /**
+     * Список бронирований пользователя в роли role по спецификации BookingStateSpec
+     *
+     * @param role   Бронирующий или владелец
+     * @param userId ID пользователя
+     * @param state  Статус бронирования
+     * @param cursor Курсор для state=ALL или null
+     * @param page   Страница
+     * @return Бронирования
+     */
+    List<BookingDtoOut> findByState(BookingRole role,
+                                    long userId,
+                                    BookingStatus state,
+                                    BookingCursor cursor,
+                                    PageRequest page);
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Единый построитель Criteria-запросов списков бронирований для бронирующего и владельца
+ */
+public class BookingViewRepositoryImpl implements BookingViewRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDtoOut> findByState(BookingRole role,
+                                           long userId,
+                                           BookingStatus state,
+                                           BookingCursor cursor,
+                                           PageRequest page) {
+        BookingStateSpec spec = BookingStateSpec.of(state);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDtoOut> query = cb.createQuery(BookingDtoOut.class);
+        Root<BookingView> view = query.from(BookingView.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(view.get(role.getAttribute()), userId));
+        Predicate restriction = spec.getRestriction().toPredicate(cb, view, LocalDateTime.now());
+        if (restriction != null) {
+            predicates.add(restriction);
+        }
+        if (cursor != null) {
+            predicates.add(cb.or(cb.lessThan(view.<LocalDateTime>get(BookingView.END), cursor.getEnd()),
+                    cb.and(cb.equal(view.get(BookingView.END), cursor.getEnd()),
+                            cb.lessThan(view.<Long>get(BookingView.ID), cursor.getId()))));
+        }
+
+        query.select(cb.construct(BookingDtoOut.class,
+                        view.get(BookingView.ID),
+                        view.get(BookingView.START),
+                        view.get(BookingView.END),
+                        view.get(BookingView.STATUS),
+                        view.get(BookingView.ITEM_ID),
+                        view.get(BookingView.ITEM_NAME),
+                        view.get(BookingView.BOOKER_ID)))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(spec.getOrderByDesc().stream()
+                        .map(attribute -> cb.desc(view.get(attribute)))
+                        .collect(Collectors.toList()));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+}
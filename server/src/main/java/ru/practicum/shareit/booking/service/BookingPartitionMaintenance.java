@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Обслуживание месячных секций таблицы booking в Postgres: заранее создает секции на ближайшие месяцы
+ * и отсоединяет секции старше срока хранения, переименовывая их в booking_archive_YYYY_MM.
+ * Обслуживание выполняется в одной транзакции: DDL в Postgres транзакционный, поэтому при ошибке
+ * секция не останется отсоединенной без очистки booking_view.
+ * Включается при shareit.booking.partitioning.enabled=true
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.partitioning.enabled", havingValue = "true")
+public class BookingPartitionMaintenance {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${shareit.booking.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${shareit.booking.partitioning.retention-months:24}")
+    private int retentionMonths;
+
+    @Scheduled(cron = "${shareit.booking.partitioning.cron:0 0 3 * * *}")
+    @Transactional
+    public void maintain() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++) {
+            jdbcTemplate.queryForList("select create_booking_partition(?)", Date.valueOf(currentMonth.plusMonths(i)));
+        }
+        if (retentionMonths > 0) {
+            archive(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Отсоединение секций, заканчивающихся раньше указанного месяца. Записи booking_view архивных бронирований
+     * удаляются, чтобы списки бронирований не показывали бронирования, которых уже нет в booking,
+     * а сводки предметов, ссылающиеся на них, помечаются устаревшими
+     *
+     * @param before Первый месяц, который остается в booking
+     */
+    private void archive(LocalDate before) {
+        List<String> partitions = jdbcTemplate.queryForList("select c.relname " +
+                "from pg_inherits as i " +
+                "join pg_class as c on c.oid = i.inhrelid " +
+                "where i.inhparent = 'booking'::regclass " +
+                "and c.relname ~ '^booking_p[0-9]{4}_[0-9]{2}$' " +
+                "and to_date(substr(c.relname, 10), 'YYYY_MM') < ?", String.class, Date.valueOf(before));
+        for (String partition : partitions) {
+            String archive = "booking_archive_" + partition.substring("booking_p".length());
+            jdbcTemplate.execute("alter table booking detach partition " + partition);
+            jdbcTemplate.execute("alter table " + partition + " rename to " + archive);
+            int views = jdbcTemplate.update("delete from booking_view as v using " + archive + " as a " +
+                    "where v.id = a.id");
+            jdbcTemplate.update("update item_booking_summary set next_start = now() " +
+                    "where last_booking_id in (select id from " + archive + ")");
+            log.info("Секция {} отсоединена от booking и переименована в {}, удалено {} записей booking_view",
+                    partition, archive, views);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.utilites.Versioned;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface BookingService {
 
@@ -14,7 +19,7 @@ public interface BookingService {
      * @param bookingDto Параметры бронирования
      * @return Бронирование
      */
-    Booking create(long userId, BookingDto bookingDto);
+    BookingDtoOut create(long userId, BookingDto bookingDto);
 
     /**
      * Подтверждение или отклонение бронирования
@@ -24,7 +29,7 @@ public interface BookingService {
      * @param approved  Подтверждение или отклонение бронирования
      * @return Бронирование
      */
-    Booking responseToRequest(long userId, long bookingId, boolean approved);
+    BookingDtoOut responseToRequest(long userId, long bookingId, boolean approved);
 
     /**
      * Поиск бронирования по ID
@@ -33,24 +38,54 @@ public interface BookingService {
      * @param bookingId ID бронирования
      * @return Бронирование
      */
-    Booking findBookingById(long userId, long bookingId);
+    BookingDtoOut findBookingById(long userId, long bookingId);
+
+    /**
+     * Пакетное бронирование
+     *
+     * @param userId          ID бронирующего пользователя
+     * @param bookingBatchDto Параметры бронирований
+     * @return Бронирования в порядке элементов пакета
+     */
+    List<BookingDtoOut> createBatch(long userId, BookingBatchDto bookingBatchDto);
+
+    /**
+     * Пакетное подтверждение или отклонение бронирований
+     *
+     * @param userId                  ID владельца вещей
+     * @param bookingApprovalBatchDto Решения по бронированиям
+     * @return Бронирования в порядке элементов пакета
+     */
+    List<BookingDtoOut> responseToRequestBatch(long userId, BookingApprovalBatchDto bookingApprovalBatchDto);
+
+    /**
+     * Поиск бронирования по ID вместе с ETag по версиям бронирования и предмета в одной транзакции
+     *
+     * @param userId      ID пользователя осуществляющего поиск
+     * @param bookingId   ID бронирования
+     * @param notModified Проверка If-None-Match, при совпадении ответ не строится
+     * @return Бронирование и его ETag
+     */
+    Versioned<BookingDtoOut> findBookingById(long userId, long bookingId, Predicate<String> notModified);
 
     /**
      * Поиск бронирования по автору бронирования
      *
      * @param userId ID пользователя
      * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
      * @return Бронирование
      */
-    public List<Booking> findBookingAuthor(long userId, String state,int from, int size);
+    public List<BookingDtoOut> findBookingAuthor(long userId, BookingStatus state, int from, int size, String after);
 
     /**
      * Поиск бронирования владельцем вещей
      *
      * @param userId ID Пользователя
      * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
      * @return Бронирование
      */
-    List<Booking> findBookingOwner(long userId, String state, int from, int size);
+    List<BookingDtoOut> findBookingOwner(long userId, BookingStatus state, int from, int size, String after);
 
 }
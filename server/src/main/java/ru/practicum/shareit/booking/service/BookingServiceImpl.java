@@ -1,22 +1,42 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalBatchDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.exception.IncorrectStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.item.exception.ValidationItemException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilites.Versioned;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utilites.Validation.*;
 
@@ -24,8 +44,10 @@ import static ru.practicum.shareit.utilites.Validation.*;
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
 
     /**
      * Запрос на бронирования
@@ -35,7 +57,8 @@ public class BookingServiceImpl implements BookingService {
      * @return Бронирование
      */
     @Override
-    public Booking create(long userId, BookingDto bookingDto) {
+    @Transactional
+    public BookingDtoOut create(long userId, BookingDto bookingDto) {
         Optional<User> user = userRepository.findById(userId);
         Optional<Item> item = itemRepository.findById(bookingDto.getItemId());
         validationFindOwner(userId, user);
@@ -43,7 +66,13 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = BookingMapper.mapToBooking(bookingDto, item.get(), user.get());
         validationOwner(userId, item.get());
         validationItemAvailable(item.get());
-        return bookingRepository.save(booking);
+        validationBookingOverlap(item.get().getId(), bookingRepository.existsApprovedOverlap(item.get().getId(),
+                booking.getStart(),
+                booking.getEnd()));
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingViewRepository.save(BookingMapper.mapToBookingView(savedBooking));
+        itemBookingSummaryService.refresh(List.of(savedBooking.getItem().getId()));
+        return BookingMapper.mapToBookingDtoOut(savedBooking);
     }
 
     /**
@@ -55,20 +84,146 @@ public class BookingServiceImpl implements BookingService {
      * @return Бронирование
      */
     @Override
-    public Booking responseToRequest(long userId, long bookingId, boolean approved) {
-        Optional<Booking> booking = bookingRepository.findById(bookingId);
+    @Transactional
+    public BookingDtoOut responseToRequest(long userId, long bookingId, boolean approved) {
+        Optional<Booking> booking = bookingRepository.findByIdWithItem(bookingId);
         Optional<User> user = userRepository.findById(userId);
         validationFindBooking(bookingId, booking);
         validationIncorrectOwner(booking.get().getItem(), user.get());
         Booking bookings = booking.get();
         if (approved) {
             validationBookingStatus(bookings);
+            itemBookingSummaryService.lock(List.of(bookings.getItem().getId()));
+            validationBookingOverlap(bookings.getItem().getId(), bookingRepository.existsApprovedOverlap(
+                    bookings.getItem().getId(),
+                    bookings.getStart(),
+                    bookings.getEnd()));
             bookings.setStatus(BookingStatus.APPROVED);
-            return bookingRepository.save(bookings);
+            try {
+                bookingRepository.saveAndFlush(bookings);
+            } catch (DataIntegrityViolationException e) {
+                throw new ValidationItemException("Элемент уже забронирован на это время");
+            }
         } else {
             bookings.setStatus(BookingStatus.REJECTED);
-            return bookingRepository.save(bookings);
+            bookingRepository.save(bookings);
+        }
+        bookingViewRepository.updateStatus(bookingId, bookings.getStatus());
+        itemBookingSummaryService.refresh(List.of(bookings.getItem().getId()));
+        return BookingMapper.mapToBookingDtoOut(bookings);
+    }
+
+    /**
+     * Пакетное бронирование: пользователь, вещи и подтвержденные бронирования вещей загружаются
+     * одним запросом на весь пакет. Пакет выполняется целиком или не выполняется: ошибка любого элемента
+     * возвращается так же, как для одиночного бронирования, и ни одно бронирование не сохраняется
+     *
+     * @param userId          ID бронирующего пользователя
+     * @param bookingBatchDto Параметры бронирований
+     * @return Бронирования в порядке элементов пакета
+     */
+    @Override
+    @Transactional
+    public List<BookingDtoOut> createBatch(long userId, BookingBatchDto bookingBatchDto) {
+        Optional<User> user = userRepository.findById(userId);
+        validationFindOwner(userId, user);
+        List<BookingDto> bookingDtos = bookingBatchDto.getBookings();
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> approved = findApprovedByItemId(itemIds, bookingDtos.stream()
+                .map(BookingDto::getStart)
+                .min(Comparator.naturalOrder())
+                .orElse(LocalDateTime.now()));
+
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            validationBookingTime(bookingDto.getStart(), bookingDto.getEnd());
+            Optional<Item> item = Optional.ofNullable(items.get(bookingDto.getItemId()));
+            validationFindItem(bookingDto.getItemId(), item);
+            validationOwner(userId, item.get());
+            validationItemAvailable(item.get());
+            validationBookingOverlap(item.get().getId(), overlaps(approved.get(item.get().getId()),
+                    bookingDto.getStart(),
+                    bookingDto.getEnd()));
+            bookings.add(BookingMapper.mapToBooking(bookingDto, item.get(), user.get()));
+        }
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        bookingViewRepository.saveAll(savedBookings.stream()
+                .map(BookingMapper::mapToBookingView)
+                .collect(Collectors.toList()));
+        itemBookingSummaryService.refresh(savedBookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+        return savedBookings.stream()
+                .map(BookingMapper::mapToBookingDtoOut)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Пакетное подтверждение или отклонение бронирований: бронирования и подтвержденные бронирования
+     * тех же вещей загружаются одним запросом на весь пакет, изменения записываются одним батчем.
+     * Как и пакетное бронирование, выполняется целиком или не выполняется
+     *
+     * @param userId                  ID владельца вещей
+     * @param bookingApprovalBatchDto Решения по бронированиям
+     * @return Бронирования в порядке элементов пакета
+     */
+    @Override
+    @Transactional
+    public List<BookingDtoOut> responseToRequestBatch(long userId, BookingApprovalBatchDto bookingApprovalBatchDto) {
+        Optional<User> user = userRepository.findById(userId);
+        validationFindOwner(userId, user);
+        List<BookingApprovalDto> approvals = bookingApprovalBatchDto.getApprovals();
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInWithItem(approvals.stream()
+                        .map(BookingApprovalDto::getBookingId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> itemIds = bookings.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        itemBookingSummaryService.lock(itemIds);
+        Map<Long, List<Booking>> approved = findApprovedByItemId(itemIds,
+                bookings.values().stream()
+                        .map(Booking::getStart)
+                        .min(Comparator.naturalOrder())
+                        .orElse(LocalDateTime.now()));
+
+        List<Booking> updatedBookings = new ArrayList<>();
+        for (BookingApprovalDto approval : approvals) {
+            Optional<Booking> booking = Optional.ofNullable(bookings.get(approval.getBookingId()));
+            validationFindBooking(approval.getBookingId(), booking);
+            Booking bookingUpdate = booking.get();
+            validationIncorrectOwner(bookingUpdate.getItem(), user.get());
+            if (Boolean.TRUE.equals(approval.getApproved())) {
+                validationBookingStatus(bookingUpdate);
+                List<Booking> itemApproved = approved.computeIfAbsent(bookingUpdate.getItem().getId(),
+                        itemId -> new ArrayList<>());
+                validationBookingOverlap(bookingUpdate.getItem().getId(), overlaps(itemApproved,
+                        bookingUpdate.getStart(),
+                        bookingUpdate.getEnd()));
+                bookingUpdate.setStatus(BookingStatus.APPROVED);
+                itemApproved.add(bookingUpdate);
+            } else {
+                bookingUpdate.setStatus(BookingStatus.REJECTED);
+            }
+            updatedBookings.add(bookingUpdate);
+        }
+        Map<Long, BookingStatus> statuses = updatedBookings.stream()
+                .collect(Collectors.toMap(Booking::getId, Booking::getStatus, (first, second) -> second));
+        bookingViewRepository.findAllById(statuses.keySet())
+                .forEach(view -> view.setStatus(statuses.get(view.getId())));
+        try {
+            bookingRepository.saveAllAndFlush(updatedBookings);
+        } catch (DataIntegrityViolationException e) {
+            throw new ValidationItemException("Элемент уже забронирован на это время");
         }
+        itemBookingSummaryService.refresh(itemIds);
+        return updatedBookings.stream()
+                .map(BookingMapper::mapToBookingDtoOut)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -79,11 +234,30 @@ public class BookingServiceImpl implements BookingService {
      * @return Бронирование
      */
     @Override
-    public Booking findBookingById(long userId, long bookingId) {
-        Optional<Booking> booking = bookingRepository.findById(bookingId);
+    @Transactional(readOnly = true)
+    public BookingDtoOut findBookingById(long userId, long bookingId) {
+        return findBookingById(userId, bookingId, etag -> false).getBody();
+    }
+
+    /**
+     * Поиск бронирования по ID вместе с ETag по версиям бронирования и предмета в одной транзакции
+     *
+     * @param userId      ID пользователя осуществляющего поиск
+     * @param bookingId   ID бронирования
+     * @param notModified Проверка If-None-Match, при совпадении ответ не строится
+     * @return Бронирование и его ETag
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Versioned<BookingDtoOut> findBookingById(long userId, long bookingId, Predicate<String> notModified) {
+        Optional<Booking> booking = bookingRepository.findByIdWithItem(bookingId);
         validationFindBooking(bookingId, booking);
         validationOwnerOrAuthorBooking(userId, booking.get());
-        return booking.get();
+        String etag = "\"" + bookingId + "-" + booking.get().getVersion() + "-" + booking.get().getItem().getVersion() + "\"";
+        if (notModified.test(etag)) {
+            return Versioned.notModified(etag);
+        }
+        return Versioned.of(etag, BookingMapper.mapToBookingDtoOut(booking.get()));
     }
 
     /**
@@ -91,47 +265,13 @@ public class BookingServiceImpl implements BookingService {
      *
      * @param userId ID пользователя
      * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
      * @return Бронирование
      */
     @Override
-    public List<Booking> findBookingAuthor(long userId, String state, int from, int size) {
-        try {
-            PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-            BookingStatus status = BookingStatus.valueOf(state);
-            validationFindOwner(userId, userRepository.findById(userId));
-            switch (status) {
-                case ALL:
-                    return bookingRepository.findAllByBookerId(userId, page);
-                case PAST:
-                    return bookingRepository.findAllByBookerIdAndEndBeforeOrderByEndDesc(userId,
-                            LocalDateTime.now(),
-                            page);
-                case FUTURE:
-                    return bookingRepository.findAllByBookerIdAndStatusInAndStartAfterOrderByStartDesc(userId,
-                            List.of(BookingStatus.APPROVED,
-                                    BookingStatus.WAITING),
-                            LocalDateTime.now(),
-                            page);
-                case CURRENT:
-                    return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(userId,
-                            LocalDateTime.now(),
-                            LocalDateTime.now(),
-                            page);
-                case WAITING:
-                    return bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, page);
-                case APPROVED:
-                    return bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.APPROVED, page);
-                case CANCELED:
-                    return bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.CANCELED, page);
-                case REJECTED:
-                    return bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, page);
-                default:
-                    throw new IncorrectStatus("Unknown state: UNSUPPORTED_STATUS");
-            }
-        } catch (IllegalArgumentException e) {
-            throw new IncorrectStatus("Unknown state: UNSUPPORTED_STATUS");
-        }
-
+    @Transactional(readOnly = true)
+    public List<BookingDtoOut> findBookingAuthor(long userId, BookingStatus state, int from, int size, String after) {
+        return findBookings(BookingRole.BOOKER, userId, state, from, size, after);
     }
 
     /**
@@ -139,44 +279,77 @@ public class BookingServiceImpl implements BookingService {
      *
      * @param userId ID Пользователя
      * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
      * @return Бронирование
      */
     @Override
-    public List<Booking> findBookingOwner(long userId, String state, int from, int size) {
-        try {
-            PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-            BookingStatus status = BookingStatus.valueOf(state);
-            validationFindOwner(userId, userRepository.findById(userId));
-            switch (status) {
-                case ALL:
-                    return bookingRepository.findAllByOwnerId(userId, page);
-                case PAST:
-                    return bookingRepository.findAllByOwnerIdAndEndBefore(userId,
-                            LocalDateTime.now(),
-                            page);
-                case FUTURE:
-                    return bookingRepository.findAllByOwnerIdAndStatusInAndStartBeforeOrderByStartDesc(userId,
-                            BookingStatus.APPROVED,
-                            BookingStatus.WAITING,
-                            LocalDateTime.now(),
-                            page);
-                case CURRENT:
-                    return bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfter(userId,
-                            LocalDateTime.now(),
-                            page);
-                case WAITING:
-                    return bookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.WAITING, page);
-                case APPROVED:
-                    return bookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.APPROVED, page);
-                case CANCELED:
-                    return bookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.CANCELED, page);
-                case REJECTED:
-                    return bookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.REJECTED, page);
-                default:
-                    throw new IncorrectStatus("Unknown state: UNSUPPORTED_STATUS");
-            }
-        } catch (IllegalArgumentException e) {
-            throw new IncorrectStatus("Unknown state: UNSUPPORTED_STATUS");
+    @Transactional(readOnly = true)
+    public List<BookingDtoOut> findBookingOwner(long userId, BookingStatus state, int from, int size, String after) {
+        return findBookings(BookingRole.OWNER, userId, state, from, size, after);
+    }
+
+    /**
+     * Список бронирований пользователя в роли role, выборка строится по спецификации состояния
+     * из BookingStateSpec. Неизвестный state отклоняется контроллером до вызова сервиса
+     *
+     * @param role   Бронирующий или владелец
+     * @param userId ID пользователя
+     * @param state  Статус бронирования
+     * @param after  Курсор следующей страницы, для state=ALL вместо from
+     * @return Бронирования
+     */
+    private List<BookingDtoOut> findBookings(BookingRole role,
+                                             long userId,
+                                             BookingStatus state,
+                                             int from,
+                                             int size,
+                                             String after) {
+        validationFindOwner(userId, userRepository.findById(userId));
+        validationCursorState(state, after);
+        if (after != null) {
+            return bookingViewRepository.findByState(role,
+                    userId,
+                    state,
+                    BookingCursor.decode(after),
+                    PageRequest.of(0, size));
+        }
+        return bookingViewRepository.findByState(role,
+                userId,
+                state,
+                null,
+                PageRequest.of(from > 0 ? from / size : 0, size));
+    }
+
+    /**
+     * Подтвержденные бронирования вещей, заканчивающиеся после указанного времени, сгруппированные по ID вещи
+     *
+     * @param itemIds ID вещей
+     * @param end     Время, после которого заканчиваются бронирования
+     * @return Map бронирований по ID вещи
+     */
+    private Map<Long, List<Booking>> findApprovedByItemId(Collection<Long> itemIds, LocalDateTime end) {
+        if (itemIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookingRepository.findApprovedByItemIdInAndEndAfter(itemIds, end).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(),
+                        HashMap::new,
+                        Collectors.toCollection(ArrayList::new)));
+    }
+
+    /**
+     * Проверяет пересечение интервала с бронированиями, так же как existsApprovedOverlap
+     *
+     * @param bookings Подтвержденные бронирования вещи
+     * @param start    Начало интервала
+     * @param end      Конец интервала
+     * @return true, если интервал пересекается хотя бы с одним бронированием
+     */
+    private boolean overlaps(List<Booking> bookings, LocalDateTime start, LocalDateTime end) {
+        if (bookings == null) {
+            return false;
         }
+        return bookings.stream()
+                .anyMatch(booking -> booking.getStart().isBefore(end) && booking.getEnd().isAfter(start));
     }
 }
@@ -1,13 +1,16 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utilites.Versioned;
 
 import java.util.List;
 
@@ -23,13 +26,23 @@ public class ItemController {
     /**
      * Вывод продукта по ID
      *
-     * @param itemId ID продукта
-     * @return Продукт
+     * @param itemId  ID продукта
+     * @param request Запрос, для проверки If-None-Match
+     * @return Продукт или 304, если ETag совпал
      */
     @GetMapping("/{itemId}")
-    public ItemDto findItemByIdItem(@PathVariable long itemId,
-                                    @RequestHeader(value = "X-Sharer-User-Id") long userId) {
-        return itemService.findItemByIdItem(itemId, userId);
+    public ResponseEntity<ItemDto> findItemByIdItem(@PathVariable long itemId,
+                                                    @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                    WebRequest request) {
+        Versioned<ItemDto> item = itemService.findItemByIdItem(itemId, userId, request::checkNotModified);
+        if (item.isNotModified()) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (item.getEtag() != null) {
+            response.eTag(item.getEtag());
+        }
+        return response.body(item.getBody());
     }
 
     /**
@@ -4,8 +4,8 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.dto.LastBooking;
 import ru.practicum.shareit.booking.dto.NextBooking;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -49,16 +49,17 @@ public class ItemMapper {
     }
 
     public static ItemDto mapToItemDtoOwner(Item item,
-                                            Booking bookingLast,
-                                            Booking bookingNext,
+                                            ItemBookingSummary summary,
                                             List<CommentDto> comment) {
         return new ItemDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                bookingLast == null ? null : new LastBooking(bookingLast.getId(), bookingLast.getBooker().getId()),
-                bookingNext == null ? null : new NextBooking(bookingNext.getId(), bookingNext.getBooker().getId()),
+                summary.getLastBookingId() == null ? null :
+                        new LastBooking(summary.getLastBookingId(), summary.getLastBookerId()),
+                summary.getNextBookingId() == null ? null :
+                        new NextBooking(summary.getNextBookingId(), summary.getNextBookerId()),
                 comment,
                 item.getRequest() == null ? null : item.getRequest().getId()
         );
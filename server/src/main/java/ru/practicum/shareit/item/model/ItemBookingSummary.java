@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и следующее бронирования предмета, пересчитываются при изменении бронирований предмета.
+ * Когда наступает начало следующего бронирования, запись устаревает и пересчитывается планировщиком
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary implements Persistable<Long> {
+    @Id
+    private Long itemId;
+    private Long lastBookingId;
+    private Long lastBookerId;
+    private Long nextBookingId;
+    private Long nextBookerId;
+    private LocalDateTime nextStart;
+    @Transient
+    private boolean persisted;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    /**
+     * ID задается вручную, поэтому новизна записи отслеживается отдельно, чтобы save не делал лишний select
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    /**
+     * Следующее бронирование уже началось, значит указатели нужно сдвинуть
+     *
+     * @param now Текущее время
+     * @return true, если запись устарела
+     */
+    public boolean isStale(LocalDateTime now) {
+        return nextStart != null && !nextStart.isAfter(now);
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -1,10 +1,22 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(long authorId);
+    @Query("select c " +
+            "from Comment as c " +
+            "join fetch c.author " +
+            "where c.item.id = ?1")
+    List<Comment> findAllByItemId(long itemId);
+
+    @Query("select c " +
+            "from Comment as c " +
+            "join fetch c.author " +
+            "where c.item.id in ?1")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
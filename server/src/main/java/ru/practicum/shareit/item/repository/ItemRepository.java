@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -15,7 +16,22 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "and it.available = true")
     List<Item> findAllByNameContainingIgnoreCase(String nameSearch, PageRequest page);
 
+    @Query(value = "select it.* " +
+            "from items as it " +
+            "where it.available = true " +
+            "and (it.search_vector @@ plainto_tsquery('simple', ?1) " +
+            "or lower(it.name) like lower(concat('%', ?1, '%')) " +
+            "or lower(it.description) like lower(concat('%', ?1, '%'))) " +
+            "order by ts_rank(it.search_vector, plainto_tsquery('simple', ?1)) desc, it.id",
+            nativeQuery = true)
+    List<Item> searchFullText(String text, PageRequest page);
+
     List<Item> findAllByUserIdOrderById(long userId, PageRequest page);
 
+    @Query("select it.id from Item as it where it.user.id = ?1")
+    List<Long> findIdsByUserId(long userId);
+
     List<Item> findByRequestId(long requestId);
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
 }
@@ -0,0 +1,346 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс доступных предметов по названию и описанию.
+ * Для каждого слова хранится отсортированный массив ID предметов, для поиска по подстроке -
+ * словарь n-грамм длиной до GRAM слов, в которых они встречаются.
+ * Изменения применяются после коммита транзакции, в которой вызваны, откат транзакции их отменяет.
+ * Используется, если shareit.item.search-mode=MEMORY
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final long[] EMPTY = new long[0];
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, long[]> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.item.search-mode:JPQL}") ItemSearchMode searchMode) {
+        this.itemRepository = itemRepository;
+        this.enabled = searchMode == ItemSearchMode.MEMORY;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Построение индекса по всем предметам из БД при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            grams.clear();
+            PageRequest page = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<Item> items;
+            do {
+                items = itemRepository.findAll(page);
+                items.forEach(item -> add(item.getId(), document(item)));
+                page = page.next();
+            } while (items.hasNext());
+            log.info("Индекс поиска построен: {} предметов, {} слов", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавление или обновление предмета в индексе после коммита текущей транзакции
+     *
+     * @param item Предмет
+     */
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        long itemId = item.getId();
+        String[] document = document(item);
+        afterCommit(() -> {
+            removeDocument(itemId);
+            add(itemId, document);
+        });
+    }
+
+    /**
+     * Удаление предмета из индекса после коммита текущей транзакции
+     *
+     * @param itemId ID предмета
+     */
+    public void remove(long itemId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> removeDocument(itemId));
+    }
+
+    /**
+     * Удаление предметов пользователя из индекса после коммита текущей транзакции.
+     * Вызывается до удаления пользователя: его предметы удаляются каскадно в БД, минуя сервис предметов
+     *
+     * @param userId ID пользователя
+     */
+    public void removeUserItems(long userId) {
+        if (!enabled) {
+            return;
+        }
+        Collection<Long> itemIds = itemRepository.findIdsByUserId(userId);
+        afterCommit(() -> itemIds.forEach(this::removeDocument));
+    }
+
+    /**
+     * Поиск ID доступных предметов, в названии или описании которых встречается текст
+     *
+     * @param text Искомый текст
+     * @param from С какого элемента выводить
+     * @param size Количество элементов на странице
+     * @return ID предметов по возрастанию
+     */
+    public List<Long> search(String text, int from, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<String> queryTokens = tokenize(query);
+        lock.readLock().lock();
+        try {
+            long[] candidates = null;
+            for (String queryToken : queryTokens) {
+                long[] matches = EMPTY;
+                for (String token : tokensContaining(queryToken)) {
+                    matches = union(matches, postings.get(token));
+                }
+                candidates = candidates == null ? matches : intersect(candidates, matches);
+                if (candidates.length == 0) {
+                    return List.of();
+                }
+            }
+            if (candidates == null) {
+                return List.of();
+            }
+            List<Long> result = new ArrayList<>();
+            int skipped = 0;
+            for (long id : candidates) {
+                String[] document = documents.get(id);
+                if (!document[0].contains(query) && !document[1].contains(query)) {
+                    continue;
+                }
+                if (skipped++ < from) {
+                    continue;
+                }
+                result.add(id);
+                if (result.size() == size) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Слова словаря, содержащие подстроку: короткая подстрока сама является n-граммой,
+     * для длинной пересекаются слова всех ее n-грамм длины GRAM
+     */
+    private Set<String> tokensContaining(String queryToken) {
+        if (queryToken.length() <= GRAM) {
+            return grams.getOrDefault(queryToken, Set.of());
+        }
+        Set<String> tokens = null;
+        for (int i = 0; i + GRAM <= queryToken.length(); i++) {
+            Set<String> gramTokens = grams.getOrDefault(queryToken.substring(i, i + GRAM), Set.of());
+            if (tokens == null || gramTokens.size() < tokens.size()) {
+                tokens = gramTokens;
+            }
+        }
+        Set<String> result = new HashSet<>();
+        for (String token : tokens) {
+            if (token.contains(queryToken)) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Выполняет изменение индекса после коммита текущей транзакции, без транзакции - сразу
+     */
+    private void afterCommit(Runnable change) {
+        Runnable locked = () -> {
+            lock.writeLock().lock();
+            try {
+                change.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+
+    /**
+     * Название и описание в нижнем регистре, null для недоступного предмета
+     */
+    private static String[] document(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return null;
+        }
+        String name = item.getName() == null ? "" : item.getName().toLowerCase(Locale.ROOT);
+        String description = item.getDescription() == null ? "" : item.getDescription().toLowerCase(Locale.ROOT);
+        return new String[]{name, description};
+    }
+
+    private void add(long itemId, String[] document) {
+        if (document == null) {
+            return;
+        }
+        documents.put(itemId, document);
+        for (String token : tokenize(document[0] + " " + document[1])) {
+            if (postings.merge(token, new long[]{itemId}, ItemSearchIndex::union).length == 1) {
+                for (String gram : grams(token)) {
+                    grams.computeIfAbsent(gram, key -> new HashSet<>()).add(token);
+                }
+            }
+        }
+    }
+
+    private void removeDocument(long itemId) {
+        String[] document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String token : tokenize(document[0] + " " + document[1])) {
+            long[] ids = postings.get(token);
+            if (ids == null) {
+                continue;
+            }
+            int position = Arrays.binarySearch(ids, itemId);
+            if (position < 0) {
+                continue;
+            }
+            if (ids.length == 1) {
+                postings.remove(token);
+                for (String gram : grams(token)) {
+                    Set<String> gramTokens = grams.get(gram);
+                    gramTokens.remove(token);
+                    if (gramTokens.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+                continue;
+            }
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            postings.put(token, updated);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Все различные подстроки слова длиной от 1 до GRAM
+     */
+    private static Set<String> grams(String token) {
+        Set<String> result = new HashSet<>();
+        for (int length = 1; length <= GRAM; length++) {
+            for (int i = 0; i + length <= token.length(); i++) {
+                result.add(token.substring(i, i + length));
+            }
+        }
+        return result;
+    }
+
+    private static long[] union(long[] first, long[] second) {
+        long[] result = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                result[k++] = first[i++];
+            } else if (first[i] > second[j]) {
+                result[k++] = second[j++];
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        while (i < first.length) {
+            result[k++] = first[i++];
+        }
+        while (j < second.length) {
+            result[k++] = second[j++];
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+
+    private static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return k == result.length ? result : Arrays.copyOf(result, k);
+    }
+}
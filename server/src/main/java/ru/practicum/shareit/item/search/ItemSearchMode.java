@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+/**
+ * Способ поиска предметов по названию и описанию
+ */
+public enum ItemSearchMode {
+    // JPQL-запрос с like, работает на любой БД
+    JPQL,
+    // Полнотекстовый поиск PostgreSQL с ранжированием и trigram-индексами
+    FULLTEXT,
+    // Инвертированный индекс в памяти приложения
+    MEMORY
+}
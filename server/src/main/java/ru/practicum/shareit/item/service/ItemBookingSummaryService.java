@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingShort;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сводка последнего и следующего бронирования предметов
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemBookingSummaryService {
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Создание пустой сводки для нового предмета
+     *
+     * @param itemId ID предмета
+     */
+    public void create(long itemId) {
+        itemBookingSummaryRepository.save(new ItemBookingSummary(itemId));
+    }
+
+    /**
+     * Сводки предметов для чтения. Отсутствующие и устаревшие сводки вычисляются запросами к бронированиям
+     * без записи, их обновит планировщик
+     *
+     * @param itemIds ID предметов
+     * @return Map сводок по ID предмета
+     */
+    public Map<Long, ItemBookingSummary> findCurrent(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> result = new HashMap<>();
+        for (ItemBookingSummary summary : itemBookingSummaryRepository.findAllById(itemIds)) {
+            if (!summary.isStale(now)) {
+                result.put(summary.getItemId(), summary);
+            }
+        }
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            if (!result.containsKey(itemId)) {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(compute(missing, now));
+        }
+        return result;
+    }
+
+    /**
+     * Блокировка сводок предметов до конца транзакции. Сериализует подтверждение бронирований одного предмета,
+     * так как ограничение на пересечение в Postgres действует только внутри месячной секции booking
+     *
+     * @param itemIds ID предметов
+     */
+    @Transactional
+    public void lock(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            itemBookingSummaryRepository.findAllByItemIdInForUpdate(itemIds);
+        }
+    }
+
+    /**
+     * Пересчет сводок предметов. Строки сводок блокируются в порядке ID предметов, поэтому параллельные
+     * изменения бронирований одного предмета пересчитывают сводку по очереди
+     *
+     * @param itemIds ID предметов
+     */
+    @Transactional
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        List<ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllByItemIdInForUpdate(itemIds);
+        Map<Long, ItemBookingSummary> computed = compute(itemIds, LocalDateTime.now());
+        for (ItemBookingSummary summary : summaries) {
+            ItemBookingSummary current = computed.get(summary.getItemId());
+            summary.setLastBookingId(current.getLastBookingId());
+            summary.setLastBookerId(current.getLastBookerId());
+            summary.setNextBookingId(current.getNextBookingId());
+            summary.setNextBookerId(current.getNextBookerId());
+            summary.setNextStart(current.getNextStart());
+        }
+    }
+
+    /**
+     * Вычисление сводок по бронированиям, отклоненные бронирования не учитываются
+     *
+     * @param itemIds ID предметов
+     * @param now     Текущее время
+     * @return Map сводок по ID предмета
+     */
+    private Map<Long, ItemBookingSummary> compute(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> result = new HashMap<>();
+        for (Long itemId : itemIds) {
+            result.put(itemId, new ItemBookingSummary(itemId));
+        }
+        for (BookingShort booking : bookingRepository.findLastByItemIdIn(itemIds, now, BookingStatus.REJECTED)) {
+            ItemBookingSummary summary = result.get(booking.getItemId());
+            if (summary.getLastBookingId() == null) {
+                summary.setLastBookingId(booking.getId());
+                summary.setLastBookerId(booking.getBookerId());
+            }
+        }
+        for (BookingShort booking : bookingRepository.findNextByItemIdIn(itemIds, now, BookingStatus.REJECTED)) {
+            ItemBookingSummary summary = result.get(booking.getItemId());
+            if (summary.getNextBookingId() == null) {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookerId(booking.getBookerId());
+                summary.setNextStart(booking.getStart());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Планировщик, сдвигающий указатели сводок предметов, у которых наступило начало следующего бронирования
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummarySweeper {
+    private static final int PAGE_SIZE = 500;
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    /**
+     * Пересчет устаревших сводок страницами, каждая страница в отдельной транзакции
+     */
+    @Scheduled(fixedDelayString = "${shareit.item.summary.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<Long> itemIds;
+        do {
+            itemIds = itemBookingSummaryRepository.findStaleItemIds(LocalDateTime.now(), PageRequest.of(0, PAGE_SIZE));
+            itemBookingSummaryService.refresh(itemIds);
+        } while (itemIds.size() == PAGE_SIZE);
+    }
+}
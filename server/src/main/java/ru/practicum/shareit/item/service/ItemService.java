@@ -5,8 +5,10 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoShort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utilites.Versioned;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ItemService {
 
@@ -18,6 +20,17 @@ public interface ItemService {
      */
     ItemDto findItemByIdItem(long itemId, long userId);
 
+    /**
+     * Вывод продукта по ID вместе с ETag по версии в одной транзакции. Для владельца ETag не выдается,
+     * так как его ответ зависит от текущего времени
+     *
+     * @param itemId      ID продукта
+     * @param userId      ID пользователя
+     * @param notModified Проверка If-None-Match, при совпадении ответ не строится
+     * @return Продукт и его ETag
+     */
+    Versioned<ItemDto> findItemByIdItem(long itemId, long userId, Predicate<String> notModified);
+
     /**
      * Вывод продуктов выложенных пользователем
      *
@@ -1,23 +1,35 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilites.Versioned;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utilites.Validation.*;
@@ -28,8 +40,15 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingViewRepository bookingViewRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final EntityManager entityManager;
+
+    @Value("${shareit.item.search-mode:JPQL}")
+    private ItemSearchMode searchMode;
 
     /**
      * Вывод продукта по ID
@@ -38,21 +57,36 @@ public class ItemServiceImpl implements ItemService {
      * @return Продукт
      */
     @Override
+    @Transactional(readOnly = true)
     public ItemDto findItemByIdItem(long itemId, long userId) {
+        return findItemByIdItem(itemId, userId, etag -> false).getBody();
+    }
+
+    /**
+     * Вывод продукта по ID вместе с ETag по версии в одной транзакции. Для владельца ETag не выдается,
+     * так как его ответ зависит от текущего времени
+     *
+     * @param itemId      ID продукта
+     * @param userId      ID пользователя
+     * @param notModified Проверка If-None-Match, при совпадении ответ не строится
+     * @return Продукт и его ETag
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Versioned<ItemDto> findItemByIdItem(long itemId, long userId, Predicate<String> notModified) {
         Optional<Item> item = itemRepository.findById(itemId);
         validationFindItem(itemId, item);
         if (userId == item.get().getUser().getId()) {
-            return ItemMapper.mapToItemDtoOwner(itemRepository.findById(itemId).get(),
-                    bookingRepository.findFirst1ByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(itemId,
-                            LocalDateTime.now(),
-                            BookingStatus.REJECTED),
-                    bookingRepository.findFirst1ByItemIdAndStartAfterAndStatusNotOrderByStart(itemId,
-                            LocalDateTime.now(),
-                            BookingStatus.REJECTED),
-                    CommentMapper.mapToCommentDto(commentRepository.findAllByItemId(itemId)));
+            return Versioned.of(null, ItemMapper.mapToItemDtoOwner(item.get(),
+                    itemBookingSummaryService.findCurrent(List.of(itemId)).get(itemId),
+                    CommentMapper.mapToCommentDto(commentRepository.findAllByItemId(itemId))));
         }
-        return ItemMapper.mapToItemCommentDto(itemRepository.findById(itemId).get(),
-                CommentMapper.mapToCommentDto(commentRepository.findAllByItemId(itemId)));
+        String etag = "\"" + itemId + "-" + item.get().getVersion() + "\"";
+        if (notModified.test(etag)) {
+            return Versioned.notModified(etag);
+        }
+        return Versioned.of(etag, ItemMapper.mapToItemCommentDto(item.get(),
+                CommentMapper.mapToCommentDto(commentRepository.findAllByItemId(itemId))));
     }
 
     /**
@@ -62,17 +96,24 @@ public class ItemServiceImpl implements ItemService {
      * @return List продуктов
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> findItemByIdUser(long userId, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return itemRepository.findAllByUserIdOrderById(userId, page).stream()
+        List<Item> items = itemRepository.findAllByUserIdOrderById(userId, page);
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryService.findCurrent(itemIds);
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::mapToCommentDto, Collectors.toList())));
+        return items.stream()
                 .map(item -> ItemMapper.mapToItemDtoOwner(item,
-                        bookingRepository.findFirst1ByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(item.getId(),
-                                LocalDateTime.now(),
-                                BookingStatus.REJECTED),
-                        bookingRepository.findFirst1ByItemIdAndStartAfterAndStatusNotOrderByStart(item.getId(),
-                                LocalDateTime.now(),
-                                BookingStatus.REJECTED),
-                        CommentMapper.mapToCommentDto(commentRepository.findAllByItemId(item.getId()))))
+                        summaries.get(item.getId()),
+                        comments.getOrDefault(item.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 
@@ -83,12 +124,24 @@ public class ItemServiceImpl implements ItemService {
      * @return Продукт
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> search(String nameItem, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
         if (nameItem.isEmpty()) {
             return List.of();
         }
-        return ItemMapper.mapToItemDto(itemRepository.findAllByNameContainingIgnoreCase(nameItem, page));
+        switch (searchMode) {
+            case FULLTEXT:
+                return ItemMapper.mapToItemDto(itemRepository.searchFullText(nameItem, page));
+            case MEMORY:
+                List<Item> items = new ArrayList<>(itemRepository.findAllById(
+                        itemSearchIndex.search(nameItem, (int) page.getOffset(), size)));
+                items.sort(Comparator.comparing(Item::getId));
+                return ItemMapper.mapToItemDto(items);
+            case JPQL:
+            default:
+                return ItemMapper.mapToItemDto(itemRepository.findAllByNameContainingIgnoreCase(nameItem, page));
+        }
     }
 
     /**
@@ -99,6 +152,7 @@ public class ItemServiceImpl implements ItemService {
      * @return Созданный продукт
      */
     @Override
+    @Transactional
     public ItemDto create(long userId, ItemDtoShort itemDtoShort) {
         Optional<User> user = userRepository.findById(userId);
         validationFindOwner(userId, user);
@@ -110,7 +164,10 @@ public class ItemServiceImpl implements ItemService {
                         itemRequestRepository.findById(itemDtoShort.getRequestId()).get())
                 .build();
         item.setUser(user.get());
-        return ItemMapper.mapToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemBookingSummaryService.create(savedItem.getId());
+        itemSearchIndex.index(savedItem);
+        return ItemMapper.mapToItemDto(savedItem);
     }
 
     /**
@@ -122,6 +179,7 @@ public class ItemServiceImpl implements ItemService {
      * @return Обновленный продукт
      */
     @Override
+    @Transactional
     public ItemDto update(long userId, long itemId, Item item) {
         Optional<Item> itemUpdateOptional = itemRepository.findById(itemId);
         validationFindItem(itemId, itemUpdateOptional);
@@ -136,7 +194,12 @@ public class ItemServiceImpl implements ItemService {
         if (item.getAvailable() != null) {
             itemUpdate.setAvailable(item.getAvailable());
         }
-        return ItemMapper.mapToItemDto(itemRepository.save(itemUpdate));
+        Item savedItem = itemRepository.save(itemUpdate);
+        if (item.getName() != null) {
+            bookingViewRepository.updateItemName(itemId, item.getName());
+        }
+        itemSearchIndex.index(savedItem);
+        return ItemMapper.mapToItemDto(savedItem);
     }
 
     /**
@@ -148,6 +211,7 @@ public class ItemServiceImpl implements ItemService {
      * @return Комментарий
      */
     @Override
+    @Transactional
     public CommentDto createComment(long userId, long itemId, Comment comment) {
         Optional<Booking> booking = bookingRepository.findFirst1ByBookerIdAndItemId(userId, itemId);
         Optional<User> user = userRepository.findById(userId);
@@ -158,7 +222,11 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item.get());
         comment.setAuthor(user.get());
         comment.setCreate(LocalDateTime.now());
-        return CommentMapper.mapToCommentDto(commentRepository.save(comment));
+        CommentDto commentDto = CommentMapper.mapToCommentDto(commentRepository.save(comment));
+        // Комментарии входят в ответ по продукту, поэтому меняют его ETag. Версия увеличивается через сущность:
+        // массовый update через JPQL очистил бы весь регион Item в кэше второго уровня
+        entityManager.lock(item.get(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        return commentDto;
     }
 
     /**
@@ -167,7 +235,9 @@ public class ItemServiceImpl implements ItemService {
      * @param itemId ID продукта
      */
     @Override
+    @Transactional
     public void delete(long itemId) {
         itemRepository.deleteById(itemId);
+        itemSearchIndex.remove(itemId);
     }
 }
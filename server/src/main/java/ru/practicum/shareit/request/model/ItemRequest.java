@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Table(name = "request")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_seq")
+    @SequenceGenerator(name = "request_seq", sequenceName = "request_seq", allocationSize = 50)
     private Long id;
     private String description;
     @ManyToOne(fetch = FetchType.EAGER)
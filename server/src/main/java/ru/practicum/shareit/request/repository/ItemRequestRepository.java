@@ -3,12 +3,25 @@ package ru.practicum.shareit.request.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r " +
+            "from ItemRequest as r " +
+            "join fetch r.requestor " +
+            "where r.requestor.id = ?1 " +
+            "order by r.created")
     List<ItemRequest> findByRequestorIdOrderByCreated(long userId);
 
+    @Query(value = "select r " +
+            "from ItemRequest as r " +
+            "join fetch r.requestor " +
+            "where r.requestor.id <> ?1",
+            countQuery = "select count(r) " +
+                    "from ItemRequest as r " +
+                    "where r.requestor.id <> ?1")
     Page<ItemRequest> findAllByRequestorIdNot(long userId, Pageable page);
 }
@@ -3,7 +3,9 @@ package ru.practicum.shareit.request.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
@@ -15,7 +17,9 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.utilites.Validation.*;
 
@@ -34,6 +38,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @return Запрос на вещь
      */
     @Override
+    @Transactional
     public ItemRequest requestCreate(long userId, ItemRequest itemRequest) {
         Optional<User> user = userRepository.findById(userId);
         validationFindOwner(userId, user);
@@ -49,6 +54,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @return List запросов пользователя
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> findRequestByIdUser(long userId) {
         validationFindOwner(userId, userRepository.findById(userId));
         List<ItemRequest> itemRequests = itemRequestRepository.findByRequestorIdOrderByCreated(userId);
@@ -64,6 +70,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @return List запросов
      */
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> findAllRequest(long userId, int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorIdNot(userId, page).getContent();
@@ -78,6 +85,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @return запрос
      */
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto findById(long userId, long requestId) {
         Optional<ItemRequest> itemRequest = itemRequestRepository.findById(requestId);
         validationRequestId(requestId, itemRequest);
@@ -93,10 +101,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @return Запрос с вещью
      */
     private List<ItemRequestDto> itemRequestDtosCreateList(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
         List<ItemRequestDto> itemRequestDtos = new ArrayList<>();
         for (ItemRequest itemRequest : itemRequests) {
             itemRequestDtos.add(ItemRequestMapper.mapToItemDto(itemRequest,
-                    ItemMapper.mapToItemDto(itemRepository.findByRequestId(itemRequest.getId()))));
+                    ItemMapper.mapToItemDto(items.getOrDefault(itemRequest.getId(), List.of()))));
         }
         return itemRequestDtos;
     }
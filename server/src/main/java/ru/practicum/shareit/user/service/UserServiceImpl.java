@@ -3,9 +3,13 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,12 +19,15 @@ import static ru.practicum.shareit.utilites.Validation.*;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemSearchIndex itemSearchIndex;
 
     /**
      * Вывод всех пользователей
      *
      * @return List с пользователями
      */
+    @Transactional(readOnly = true)
     public List<User> findAll(int from, int size) {
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
         return repository.findAll(page).getContent();
@@ -33,6 +40,7 @@ public class UserServiceImpl implements UserService {
      * @return Пользователь
      */
     @Override
+    @Transactional(readOnly = true)
     public User findUserById(long userId) {
         Optional<User> user = repository.findById(userId);
         validationFindOwner(userId, user);
@@ -46,6 +54,7 @@ public class UserServiceImpl implements UserService {
      * @return созданный пользователь
      */
     @Override
+    @Transactional
     public User create(User user) {
         return repository.save(user);
     }
@@ -58,6 +67,7 @@ public class UserServiceImpl implements UserService {
      * @return обновленный пользователь
      */
     @Override
+    @Transactional
     public User update(long userId, User user) {
         User userUpdate = repository.findById(userId).get();
         if (user.getName() != null) {
@@ -75,8 +85,12 @@ public class UserServiceImpl implements UserService {
      * @param userId ID пользователя, которого надо удалить
      */
     @Override
+    @Transactional
     public void delete(long userId) {
         validationFindOwner(userId, repository.findById(userId));
+        itemSearchIndex.removeUserItems(userId);
         repository.deleteById(userId);
+        // Предметы пользователя удаляются каскадно в БД, минуя Hibernate
+        entityManagerFactory.getCache().evict(Item.class);
     }
 }
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.utilites;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Включает ограничение параллельных запросов при shareit.concurrency.enabled=true
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.concurrency.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+    @Value("${shareit.concurrency.max-requests:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxRequests;
+
+    @Value("${shareit.concurrency.acquire-timeout:2s}")
+    private Duration acquireTimeout;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(maxRequests, acquireTimeout));
+    }
+}
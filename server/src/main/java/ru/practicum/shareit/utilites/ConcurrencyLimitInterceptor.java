@@ -0,0 +1,39 @@
+package ru.practicum.shareit.utilites;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.utilites.exception.ServerOverloaded;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает количество одновременно обрабатываемых запросов размером пула соединений с БД,
+ * чтобы лишние потоки ждали здесь с таймаутом, а не внутри Hikari
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ConcurrencyLimitInterceptor(int maxRequests, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxRequests, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new ServerOverloaded("Сервер перегружен, повторите запрос позже");
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        permits.release();
+    }
+}
@@ -1,10 +1,11 @@
 package ru.practicum.shareit.utilites;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
-import ru.practicum.shareit.booking.exception.IncorrectStatus;
+import ru.practicum.shareit.booking.exception.IncorrectCursor;
 import ru.practicum.shareit.booking.exception.IncorrectedIdBooking;
 import ru.practicum.shareit.booking.exception.IncorrectedOwnerOrAuthor;
 import ru.practicum.shareit.item.exception.IncorrectIdItem;
@@ -12,6 +13,9 @@ import ru.practicum.shareit.item.exception.IncorrectOwner;
 import ru.practicum.shareit.item.exception.ValidationItemException;
 import ru.practicum.shareit.user.exception.DuplicateEmailException;
 import ru.practicum.shareit.user.exception.ValidationException;
+import ru.practicum.shareit.utilites.exception.ServerOverloaded;
+
+import javax.persistence.OptimisticLockException;
 
 @RestControllerAdvice
 public class ErrorHandler {
@@ -72,10 +76,34 @@ public class ErrorHandler {
     }
 
     @ExceptionHandler
-    @ResponseStatus
-    public ErrorResponse handleIncorrectState(final IncorrectStatus e) {
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleIncorrectCursor(final IncorrectCursor e) {
+        return new ErrorResponse(
+                e.getMessage()
+        );
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServerOverloaded(final ServerOverloaded e) {
         return new ErrorResponse(
                 e.getMessage()
         );
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailure(final OptimisticLockingFailureException e) {
+        return new ErrorResponse(
+                "Объект изменен другим запросом, повторите запрос"
+        );
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(final OptimisticLockException e) {
+        return new ErrorResponse(
+                "Объект изменен другим запросом, повторите запрос"
+        );
+    }
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.utilites;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Вычисляет shareit.datasource.pool-size по числу ядер: ядра * 2 + 1.
+ * Источник добавляется последним, поэтому явно заданное значение имеет приоритет
+ */
+public class PoolSizeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        environment.getPropertySources().addLast(new MapPropertySource("shareitPoolSize",
+                Map.of("shareit.datasource.pool-size", poolSize)));
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.utilites;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Отладочный заголовок с количеством SQL-запросов, выполненных до записи тела ответа.
+ * Включается при shareit.query-metrics.debug-header=true
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "shareit.query-metrics.debug-header", havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String HEADER = "X-Query-Count";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            response.getHeaders().set(HEADER, String.valueOf(stats.getStatements()));
+        }
+        return body;
+    }
+}
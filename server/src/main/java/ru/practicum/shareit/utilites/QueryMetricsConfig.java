@@ -0,0 +1,38 @@
+package ru.practicum.shareit.utilites;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Включает учет SQL-запросов по эндпоинтам при shareit.query-metrics.enabled=true
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.query-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+
+    public QueryMetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatsHibernateCustomizer() {
+        return properties -> {
+            QueryStatsInspector inspector = new QueryStatsInspector();
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            properties.put(AvailableSettings.INTERCEPTOR, inspector);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryStatsSessionListener.class.getName());
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryMetricsInterceptor(meterRegistry));
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.utilites;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Собирает QueryStats на время обработки запроса контроллером и публикует их гистограммами Micrometer
+ * с тегом endpoint вида BookingController.findBookingOwner
+ */
+public class QueryMetricsInterceptor implements HandlerInterceptor {
+    private final MeterRegistry registry;
+
+    public QueryMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            QueryStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        QueryStats stats = QueryStats.end();
+        if (stats == null) {
+            return;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        String endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        DistributionSummary.builder("shareit.sql.statements")
+                .description("SQL-запросы на HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("shareit.sql.entity.loads")
+                .description("Сущности, загруженные из JDBC на HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getEntityLoads());
+        DistributionSummary.builder("shareit.sql.connections")
+                .description("Получения соединений JDBC на HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getConnections());
+        DistributionSummary.builder("shareit.sql.flushes")
+                .description("Проходы flush Hibernate на HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getFlushes());
+        Timer.builder("shareit.sql.execution")
+                .description("Суммарное время выполнения SQL-запросов на HTTP-запрос")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.getExecutionNanos(), TimeUnit.NANOSECONDS);
+    }
+}
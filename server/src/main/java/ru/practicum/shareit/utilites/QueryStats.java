@@ -0,0 +1,52 @@
+package ru.practicum.shareit.utilites;
+
+import lombok.Getter;
+
+/**
+ * Счетчики SQL-запросов текущего HTTP-запроса. Хранятся в потоке обработки запроса,
+ * вне HTTP-запроса (планировщик, старт приложения) не собираются
+ */
+@Getter
+public class QueryStats {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entityLoads;
+    private int connections;
+    private int flushes;
+    private long executionNanos;
+
+    public static void begin() {
+        CURRENT.set(new QueryStats());
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static QueryStats end() {
+        QueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void connectionAcquired() {
+        connections++;
+    }
+
+    void flushed() {
+        flushes++;
+    }
+
+    void statementExecuted(long nanos) {
+        executionNanos += nanos;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.utilites;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Считает подготовленные SQL-запросы и загруженные из JDBC сущности для QueryStats, SQL не изменяет
+ */
+public class QueryStatsInspector extends EmptyInterceptor implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.statementPrepared();
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.entityLoaded();
+        }
+        return false;
+    }
+}
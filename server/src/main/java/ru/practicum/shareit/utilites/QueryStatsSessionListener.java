@@ -0,0 +1,66 @@
+package ru.practicum.shareit.utilites;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Суммирует время выполнения SQL-запросов сессии, получения соединений и проходы flush в QueryStats.
+ * Hibernate создает экземпляр на каждую сессию, поэтому время начала хранится в поле
+ */
+public class QueryStatsSessionListener extends BaseSessionEventListener {
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        recordExecution();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        recordExecution();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.connectionAcquired();
+        }
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.flushed();
+        }
+    }
+
+    /**
+     * Автоматический flush перед запросом учитывается, только если проверял сущности сессии:
+     * в транзакции readOnly он пропускается
+     */
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null && numberOfEntities > 0) {
+            stats.flushed();
+        }
+    }
+
+    private void recordExecution() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.statementExecuted(System.nanoTime() - executionStart);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.utilites;
 
 import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.booking.exception.IncorrectCursor;
 import ru.practicum.shareit.booking.exception.IncorrectedIdBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -26,7 +27,7 @@ public class Validation {
     }
 
     public static void validationIncorrectOwner(Item item, User user) {
-        if (!item.getUser().equals(user)) {
+        if (!item.getUser().getId().equals(user.getId())) {
             log.warn("У пользователя {} нет Item с ID {}", user.getId(), item.getId());
             throw new IncorrectOwner("Продукт не найден");
         }
@@ -74,6 +75,27 @@ public class Validation {
         }
     }
 
+    public static void validationBookingOverlap(long itemId, boolean overlap) {
+        if (overlap) {
+            log.warn("Элемент с ID {} уже забронирован на это время", itemId);
+            throw new ValidationItemException("Элемент уже забронирован на это время");
+        }
+    }
+
+    public static void validationBookingTime(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            log.warn("Начало бронирования {} не раньше окончания {}", start, end);
+            throw new ValidationItemException("Начало бронирования должно быть раньше окончания");
+        }
+    }
+
+    public static void validationCursorState(BookingStatus status, String after) {
+        if (after != null && status != BookingStatus.ALL) {
+            log.warn("Курсор передан для статуса {}", status);
+            throw new IncorrectCursor("Курсор поддерживается только для state=ALL");
+        }
+    }
+
     public static void validationOwner(long userId, Item item) {
         if (userId == item.getUser().getId()) {
             log.warn("ID ({}) бронирующего совпадает с ID ({}) владельца", userId, item.getUser().getId());
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.utilites;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ответ вместе с ETag, прочитанные в одной транзакции. Если ETag совпал с If-None-Match,
+ * тело не строится
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class Versioned<T> {
+    // null, если у ответа нет ETag
+    private final String etag;
+    // null, если ответ не изменился
+    private final T body;
+
+    public static <T> Versioned<T> of(String etag, T body) {
+        return new Versioned<>(etag, body);
+    }
+
+    public static <T> Versioned<T> notModified(String etag) {
+        return new Versioned<>(etag, null);
+    }
+
+    public boolean isNotModified() {
+        return body == null;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.utilites.exception;
+
+public class ServerOverloaded extends RuntimeException {
+    public ServerOverloaded(String s) {
+        super(s);
+    }
+}
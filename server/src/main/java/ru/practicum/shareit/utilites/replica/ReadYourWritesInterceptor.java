@@ -0,0 +1,51 @@
+package ru.practicum.shareit.utilites.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * Изменяющие запросы целиком выполняются на основной БД: соединение сессии удерживается до конца запроса,
+ * поэтому чтение в начале запроса не должно выбрать реплику. После изменяющего запроса чтения пользователя
+ * закрепляются за основной БД на stickyWindow, чтобы он видел свои изменения, пока они не дошли до реплик.
+ * Пользователь определяется по заголовку X-Sharer-User-Id, учет ведется в памяти экземпляра сервера
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesInterceptor(Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String userId = request.getHeader(USER_HEADER);
+        if (isWrite(request) || (userId != null && recentWriters.getIfPresent(userId) != null)) {
+            ReplicaRoutingDataSource.forcePrimary(true);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReplicaRoutingDataSource.forcePrimary(false);
+        String userId = request.getHeader(USER_HEADER);
+        if (userId != null && isWrite(request)) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    private boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+}
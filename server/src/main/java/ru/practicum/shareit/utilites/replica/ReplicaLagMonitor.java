@@ -0,0 +1,50 @@
+package ru.practicum.shareit.utilites.replica;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Периодически измеряет отставание реплик и оставляет для чтения только реплики с допустимым отставанием
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.datasource.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Value("${shareit.datasource.replica.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${shareit.datasource.replica.lag-query}")
+    private String lagQuery;
+
+    @Scheduled(fixedDelayString = "${shareit.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        List<String> healthy = new ArrayList<>();
+        replicaRoutingDataSource.getReplicas().forEach((name, replica) -> {
+            try {
+                Double lagSeconds = new JdbcTemplate(replica).queryForObject(lagQuery, Double.class);
+                if (lagSeconds != null && lagSeconds * 1000 <= maxLag.toMillis()) {
+                    healthy.add(name);
+                }
+            } catch (DataAccessException e) {
+                log.debug("Реплика {} недоступна: {}", name, e.getMessage());
+            }
+        });
+        if (!healthy.equals(replicaRoutingDataSource.getHealthyReplicas())) {
+            log.info("Реплики для чтения: {}", healthy);
+        }
+        replicaRoutingDataSource.setHealthyReplicas(healthy);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.utilites.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Включает чтение из реплик при shareit.datasource.replica.enabled=true.
+ * Основная БД настраивается через spring.datasource.*, реплики через shareit.datasource.replica.urls
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+    @Value("${shareit.datasource.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${shareit.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${shareit.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${shareit.datasource.replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${shareit.datasource.replica.sticky-window:5s}")
+    private Duration stickyWindow;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i))
+                    .username(replicaUsername)
+                    .password(replicaPassword)
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            // Настройки драйвера и таймауты берутся у основного пула
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setLeakDetectionThreshold(primaryDataSource.getLeakDetectionThreshold());
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    /**
+     * Пулы реплик не являются бинами, поэтому метрики hikaricp.connections.* подключаются к ним явно.
+     * Реестр метрик при создании сам зависит от всех DataSource, поэтому он не может быть зависимостью
+     * replicaRoutingDataSource и передается пулам после создания
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> replicaRoutingDataSource.getReplicas().values()
+                .forEach(replica -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+
+    /**
+     * Соединение берется при первом запросе, а не в начале транзакции, иначе признак readOnly
+     * еще не выставлен и маршрутизация всегда выбирает основную БД
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(stickyWindow));
+    }
+}
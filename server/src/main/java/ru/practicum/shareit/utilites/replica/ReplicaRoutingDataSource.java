@@ -0,0 +1,76 @@
+package ru.practicum.shareit.utilites.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Направляет соединения транзакций readOnly на реплики по кругу, остальные на основную БД.
+ * Реплики с отставанием больше допустимого исключаются ReplicaLagMonitor, без доступных реплик
+ * и при закреплении запроса за основной БД используется основная БД
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Map<String, HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, HikariDataSource> replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Закрепление чтений текущего потока за основной БД
+     *
+     * @param force true, чтобы читать из основной БД
+     */
+    public static void forcePrimary(boolean force) {
+        if (force) {
+            FORCE_PRIMARY.set(Boolean.TRUE);
+        } else {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    public Map<String, HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    public void setHealthyReplicas(List<String> healthyReplicas) {
+        this.healthyReplicas = List.copyOf(healthyReplicas);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<String> healthy = healthyReplicas;
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || FORCE_PRIMARY.get() != null
+                || healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
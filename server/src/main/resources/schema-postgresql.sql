@@ -0,0 +1,110 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+ GENERATED ALWAYS AS (to_tsvector('simple', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Месячная секция booking по end_booking. Строки этого месяца переносятся из секции по умолчанию,
+-- пересечение подтвержденных бронирований проверяется ограничением внутри секции
+CREATE OR REPLACE FUNCTION create_booking_partition(month_start DATE) RETURNS VOID AS '
+DECLARE
+ partition_name TEXT := ''booking_p'' || to_char(month_start, ''YYYY_MM'');
+ month_end DATE := (month_start + INTERVAL ''1 month'')::DATE;
+BEGIN
+ IF to_regclass(partition_name) IS NOT NULL THEN
+  RETURN;
+ END IF;
+ LOCK TABLE booking_default IN EXCLUSIVE MODE;
+ EXECUTE format(''CREATE TABLE %I (LIKE booking INCLUDING DEFAULTS)'', partition_name);
+ EXECUTE format(''INSERT INTO %I SELECT * FROM booking_default WHERE end_booking >= %L AND end_booking < %L'',
+  partition_name, month_start, month_end);
+ PERFORM set_config(''shareit.moving_bookings'', ''on'', true);
+ EXECUTE format(''DELETE FROM booking_default WHERE end_booking >= %L AND end_booking < %L'', month_start, month_end);
+ PERFORM set_config(''shareit.moving_bookings'', ''off'', true);
+ EXECUTE format(''ALTER TABLE booking ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)'',
+  partition_name, month_start, month_end);
+ EXECUTE format(''ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist ''
+  ''(item_id WITH =, tsrange(start_booking, end_booking) WITH &&) WHERE (status = %L)'',
+  partition_name, partition_name || ''_item_overlap'', ''APPROVED'');
+END' LANGUAGE plpgsql;
+
+-- Перевод несекционированной таблицы booking на секции по месяцам, выполняется один раз
+DO 'DECLARE
+ month_start DATE;
+BEGIN
+ IF (SELECT relkind FROM pg_class WHERE oid = ''booking''::regclass) <> ''r'' THEN
+  RETURN;
+ END IF;
+ ALTER TABLE booking_view DROP CONSTRAINT IF EXISTS fk_booking_view_to_booking;
+ IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_booking_view_to_item'') THEN
+  ALTER TABLE booking_view ADD CONSTRAINT fk_booking_view_to_item
+   FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE;
+ END IF;
+ IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_booking_view_to_user'') THEN
+  ALTER TABLE booking_view ADD CONSTRAINT fk_booking_view_to_user
+   FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE;
+ END IF;
+
+ ALTER TABLE booking RENAME TO booking_legacy;
+ ALTER TABLE booking_legacy DROP CONSTRAINT IF EXISTS ex_booking_item_overlap;
+ ALTER TABLE booking_legacy RENAME CONSTRAINT pk_booking TO pk_booking_legacy;
+ CREATE TABLE booking(
+  id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  start_booking TIMESTAMP NOT NULL,
+  end_booking TIMESTAMP NOT NULL,
+  status VARCHAR(50) NOT NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT fk_booking_to_user FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE,
+  CONSTRAINT fk_booking_to_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT pk_booking PRIMARY KEY(id, end_booking)
+ ) PARTITION BY RANGE (end_booking);
+ CREATE TABLE booking_default PARTITION OF booking DEFAULT;
+
+ month_start := date_trunc(''month'', COALESCE((SELECT MIN(end_booking) FROM booking_legacy), now()));
+ WHILE month_start <= date_trunc(''month'', now()) + INTERVAL ''3 months'' LOOP
+  PERFORM create_booking_partition(month_start);
+  month_start := month_start + INTERVAL ''1 month'';
+ END LOOP;
+
+ INSERT INTO booking (id, item_id, booker_id, start_booking, end_booking, status, version)
+ SELECT id, item_id, booker_id, start_booking, end_booking, status, version FROM booking_legacy;
+ DROP TABLE booking_legacy;
+END';
+
+-- Внешний ключ booking_view на booking(id) невозможен для секционированной таблицы, каскадное удаление
+-- выполняет триггер. Перенос строк между секциями в create_booking_partition записи booking_view не удаляет
+CREATE OR REPLACE FUNCTION delete_booking_view() RETURNS TRIGGER AS '
+BEGIN
+ IF current_setting(''shareit.moving_bookings'', true) IS DISTINCT FROM ''on'' THEN
+  DELETE FROM booking_view WHERE id = OLD.id;
+ END IF;
+ RETURN OLD;
+END' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_booking_delete_view ON booking;
+CREATE TRIGGER trg_booking_delete_view AFTER DELETE ON booking FOR EACH ROW EXECUTE FUNCTION delete_booking_view();
+
+-- Индексы старой таблицы удалены вместе с ней, на секционированной таблице они создаются для каждой секции
+CREATE INDEX IF NOT EXISTS idx_booking_booker_end ON booking (booker_id, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_start ON booking (booker_id, start_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_status_end ON booking (booker_id, status, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_item ON booking (booker_id, item_id);
+CREATE INDEX IF NOT EXISTS idx_booking_item_start ON booking (item_id, start_booking);
+CREATE INDEX IF NOT EXISTS idx_booking_item_end ON booking (item_id, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_item_status_end ON booking (item_id, status, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_item_approved ON booking (item_id, start_booking, end_booking)
+ WHERE status = 'APPROVED';
+
+-- Таблицы, созданные до перехода на последовательности, уже содержат ID: сдвигаем последовательности за них
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM users), (SELECT last_value FROM users_seq)));
+SELECT setval('request_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM request), (SELECT last_value FROM request_seq)));
+SELECT setval('items_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM items), (SELECT last_value FROM items_seq)));
+SELECT setval('booking_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM booking), (SELECT last_value FROM booking_seq)));
+SELECT setval('comment_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM comment), (SELECT last_value FROM comment_seq)));
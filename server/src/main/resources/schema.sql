@@ -1,6 +1,11 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS request_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comment_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT NOT NULL,
   name VARCHAR(255) NOT NULL,
   email VARCHAR(512) NOT NULL,
   CONSTRAINT pk_user PRIMARY KEY (id),
@@ -8,7 +13,7 @@ CREATE TABLE IF NOT EXISTS users (
 );
 
 CREATE TABLE IF NOT EXISTS request(
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  description VARCHAR(512) NOT NULL,
  requestor_id BIGINT NOT NULL,
  time_create TIMESTAMP NOT NULL,
@@ -17,31 +22,33 @@ CREATE TABLE IF NOT EXISTS request(
 );
 
 CREATE TABLE IF NOT EXISTS items (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  id BIGINT NOT NULL,
   name VARCHAR(255) NOT NULL,
   description VARCHAR(512) NOT NULL,
   available BOOLEAN DEFAULT TRUE,
   user_id BIGINT,
   request_id BIGINT,
+  version BIGINT NOT NULL DEFAULT 0,
   CONSTRAINT fk_items_to_request FOREIGN KEY (request_id) REFERENCES request(id) ON DELETE CASCADE,
   CONSTRAINT fk_items_to_users FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
   CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS booking(
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  item_id BIGINT NOT NULL,
  booker_id BIGINT NOT NULL,
  start_booking TIMESTAMP NOT NULL,
  end_booking TIMESTAMP NOT NULL,
  status VARCHAR(50) NOT NULL,
+ version BIGINT NOT NULL DEFAULT 0,
  CONSTRAINT fk_booking_to_user FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE,
  CONSTRAINT fk_booking_to_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
  CONSTRAINT pk_booking PRIMARY KEY(id)
 );
 
 CREATE TABLE IF NOT EXISTS comment(
- id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+ id BIGINT NOT NULL,
  text varchar(512) NOT NULL,
  item_id BIGINT NOT NULL,
  author_id BIGINT NOT NULL,
@@ -50,3 +57,61 @@ CREATE TABLE IF NOT EXISTS comment(
  CONSTRAINT fk_comment_to_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
  CONSTRAINT pk_comment PRIMARY KEY(id)
 );
+
+CREATE TABLE IF NOT EXISTS booking_view(
+ id BIGINT NOT NULL,
+ owner_id BIGINT NOT NULL,
+ booker_id BIGINT NOT NULL,
+ item_id BIGINT NOT NULL,
+ item_name VARCHAR(255) NOT NULL,
+ start_booking TIMESTAMP NOT NULL,
+ end_booking TIMESTAMP NOT NULL,
+ status VARCHAR(50) NOT NULL,
+ CONSTRAINT fk_booking_view_to_booking FOREIGN KEY (id) REFERENCES booking(id) ON DELETE CASCADE,
+ CONSTRAINT pk_booking_view PRIMARY KEY(id)
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_summary(
+ item_id BIGINT NOT NULL,
+ last_booking_id BIGINT,
+ last_booker_id BIGINT,
+ next_booking_id BIGINT,
+ next_booker_id BIGINT,
+ next_start TIMESTAMP,
+ CONSTRAINT fk_item_booking_summary_to_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+ CONSTRAINT pk_item_booking_summary PRIMARY KEY(item_id)
+);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE booking ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_items_user_id ON items (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+CREATE INDEX IF NOT EXISTS idx_request_requestor_id ON request (requestor_id, time_create);
+CREATE INDEX IF NOT EXISTS idx_comment_item_id ON comment (item_id);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_end ON booking (booker_id, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_start ON booking (booker_id, start_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_status_end ON booking (booker_id, status, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_booker_item ON booking (booker_id, item_id);
+CREATE INDEX IF NOT EXISTS idx_booking_item_start ON booking (item_id, start_booking);
+CREATE INDEX IF NOT EXISTS idx_booking_item_end ON booking (item_id, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_item_status_end ON booking (item_id, status, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_view_owner_end ON booking_view (owner_id, end_booking DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_view_owner_start ON booking_view (owner_id, start_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_view_owner_status_end ON booking_view (owner_id, status, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_view_booker_end ON booking_view (booker_id, end_booking DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_view_booker_start ON booking_view (booker_id, start_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_booking_view_booker_status_end ON booking_view (booker_id, status, end_booking DESC);
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_next_start ON item_booking_summary (next_start);
+
+INSERT INTO booking_view (id, owner_id, booker_id, item_id, item_name, start_booking, end_booking, status)
+SELECT b.id, i.user_id, b.booker_id, b.item_id, i.name, b.start_booking, b.end_booking, b.status
+FROM booking AS b
+JOIN items AS i ON i.id = b.item_id
+WHERE NOT EXISTS (SELECT 1 FROM booking_view AS v WHERE v.id = b.id);
+
+-- Сводки предметов, созданных до ее появления, помечаются устаревшими и пересчитываются планировщиком
+INSERT INTO item_booking_summary (item_id, next_start)
+SELECT i.id, CURRENT_TIMESTAMP
+FROM items AS i
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_summary AS s WHERE s.item_id = i.id);
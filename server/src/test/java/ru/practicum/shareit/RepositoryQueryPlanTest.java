@@ -0,0 +1,266 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingViewRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы запросов репозиториев на заполненной базе Postgres. Каждый SELECT, выполненный репозиторием,
+ * повторяется через EXPLAIN с теми же параметрами, тест падает при Seq Scan по таблице от LARGE_TABLE строк
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class RepositoryQueryPlanTest {
+    private static final int LARGE_TABLE = 1_000;
+    private static final int USERS = 2_000;
+    private static final int ITEMS = 10_000;
+    private static final int BOOKINGS = 100_000;
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final List<ExecutedQuery> EXECUTED = new CopyOnWriteArrayList<>();
+    private static volatile boolean recording;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13.7-alpine");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingViewRepository bookingViewRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQL10Dialect");
+        registry.add("spring.sql.init.schema-locations", () -> "classpath:schema.sql,classpath:schema-postgresql.sql");
+        registry.add("shareit.item.search-mode", () -> "FULLTEXT");
+        registry.add("shareit.booking.partitioning.enabled", () -> "true");
+        registry.add("shareit.booking.partitioning.cron", () -> "-");
+        registry.add("shareit.item.summary.sweep-interval-ms", () -> "3600000");
+    }
+
+    @BeforeAll
+    static void startRecording() {
+        recording = true;
+    }
+
+    @Test
+    void repositoryQueriesUseIndexesOnLargeTables() {
+        seed();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = List.of(17L, 18L, 19L);
+        PageRequest page = PageRequest.of(0, 10);
+        EXECUTED.clear();
+
+        bookingRepository.findLastByItemIdIn(itemIds, now, BookingStatus.REJECTED);
+        bookingRepository.findNextByItemIdIn(itemIds, now, BookingStatus.REJECTED);
+        bookingRepository.existsApprovedOverlap(17L, now, now.plusDays(1));
+        bookingRepository.findByIdWithItem(17L);
+        bookingRepository.findFirst1ByBookerIdAndItemId(17L, 17L);
+        bookingRepository.findAllByIdInWithItem(List.of(17L, 18L));
+        bookingRepository.findApprovedByItemIdInAndEndAfter(itemIds, now);
+        for (BookingRole role : BookingRole.values()) {
+            for (BookingStatus state : BookingStatus.values()) {
+                bookingViewRepository.findByState(role, 17L, state, null, page);
+            }
+            bookingViewRepository.findByState(role, 17L, BookingStatus.ALL, new BookingCursor(now, 17L), page);
+        }
+        itemRepository.searchFullText("item 42", page);
+        itemRepository.findAllByUserIdOrderById(17L, page);
+        itemRepository.findByRequestId(17L);
+        itemRepository.findAllByRequestIdIn(List.of(17L, 18L));
+        commentRepository.findAllByItemId(17L);
+        commentRepository.findAllByItemIdIn(itemIds);
+        itemRequestRepository.findByRequestorIdOrderByCreated(17L);
+        transactionTemplate.executeWithoutResult(status ->
+                itemBookingSummaryRepository.findAllByItemIdInForUpdate(itemIds));
+        itemBookingSummaryRepository.findStaleItemIds(now, page);
+
+        Map<String, String> seqScans = new TreeMap<>();
+        List<ExecutedQuery> queries = new ArrayList<>(EXECUTED);
+        assertFalse(queries.isEmpty());
+        for (ExecutedQuery query : queries) {
+            String plan = String.join("\n",
+                    jdbcTemplate.queryForList("explain " + query.sql, String.class, query.parameters.toArray()));
+            Matcher matcher = SEQ_SCAN.matcher(plan);
+            while (matcher.find()) {
+                if (rows(matcher.group(1)) >= LARGE_TABLE) {
+                    seqScans.put(query.sql, plan);
+                }
+            }
+        }
+        assertTrue(seqScans.isEmpty(), () -> "Seq Scan по большим таблицам:\n" + seqScans);
+    }
+
+    private void seed() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 1; i <= 12; i++) {
+            jdbcTemplate.queryForList("select create_booking_partition(?)", Date.valueOf(month.minusMonths(i)));
+        }
+        jdbcTemplate.update("insert into users (id, name, email) " +
+                "select i, 'user ' || i, 'user' || i || '@mail.ru' from generate_series(1, ?) as i", USERS);
+        jdbcTemplate.update("insert into request (id, description, requestor_id, time_create) " +
+                "select i, 'request ' || i, i % ? + 1, now() - i * interval '1 minute' " +
+                "from generate_series(1, ?) as i", USERS, ITEMS / 2);
+        jdbcTemplate.update("insert into items (id, name, description, available, user_id, request_id) " +
+                "select i, 'item ' || i, 'description ' || i, i % 10 <> 0, i % ? + 1, " +
+                "case when i % 2 = 0 then i / 2 end from generate_series(1, ?) as i", USERS, ITEMS);
+        jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                "select i, i % ? + 1, i % ? + 1, s, s + interval '2 days', " +
+                "case when i <= ? then 'APPROVED' else (array['WAITING', 'REJECTED', 'CANCELED'])[i % 3 + 1] end " +
+                "from generate_series(1, ?) as i, " +
+                "lateral (select now() - interval '360 days' + (i % 450) * interval '1 day' as s) as t",
+                ITEMS, USERS, ITEMS, BOOKINGS);
+        jdbcTemplate.update("insert into booking_view " +
+                "(id, owner_id, booker_id, item_id, item_name, start_booking, end_booking, status) " +
+                "select b.id, i.user_id, b.booker_id, b.item_id, i.name, b.start_booking, b.end_booking, b.status " +
+                "from booking as b join items as i on i.id = b.item_id");
+        jdbcTemplate.update("insert into comment (id, text, item_id, author_id, time_create) " +
+                "select i, 'comment ' || i, i % ? + 1, i % ? + 1, now() from generate_series(1, ?) as i",
+                ITEMS, USERS, ITEMS * 2);
+        jdbcTemplate.update("insert into item_booking_summary (item_id, next_start) " +
+                "select id, now() + (id % 30) * interval '1 day' from items on conflict do nothing");
+        // Как после autovacuum: GIN-индексы без очереди необработанных вставок, иначе их стоимость завышена
+        jdbcTemplate.execute("vacuum analyze");
+    }
+
+    private long rows(String relation) {
+        return jdbcTemplate.queryForObject("select reltuples::bigint from pg_class where relname = ?",
+                Long.class, relation);
+    }
+
+    private static class ExecutedQuery {
+        private final String sql;
+        private final List<Object> parameters;
+
+        ExecutedQuery(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * Запоминает текст и параметры выполняемых SELECT, чтобы повторить их через EXPLAIN
+     */
+    @TestConfiguration
+    static class QueryRecorderConfig {
+        @Bean
+        static BeanPostProcessor queryRecorder() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName) || !(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource((DataSource) bean) {
+                        @Override
+                        public Connection getConnection() throws java.sql.SQLException {
+                            return recording(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection recording(Connection connection) {
+            return proxy(Connection.class, connection, (method, args, result) -> {
+                if ("prepareStatement".equals(method.getName())
+                        && ((String) args[0]).trim().toLowerCase().startsWith("select")) {
+                    return recording((PreparedStatement) result, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    parameters.put((Integer) args[0], "setNull".equals(method.getName()) ? null : args[1]);
+                } else if (method.getName().startsWith("execute") && recording) {
+                    EXECUTED.add(new ExecutedQuery(sql, new ArrayList<>(parameters.values())));
+                }
+                return result;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                try {
+                    return afterCall.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        @FunctionalInterface
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Exception;
+        }
+    }
+}
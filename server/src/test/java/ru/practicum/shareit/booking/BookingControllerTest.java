@@ -0,0 +1,202 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingControllerTest {
+    private static final long OWNER_ID = 1_500;
+    private static final long BOOKER_ID = 1_501;
+    private static final long ITEM_ID = 1_500;
+    private static final long OTHER_ITEM_ID = 1_501;
+    private static final long UNKNOWN_ITEM_ID = 1_599;
+    private static final LocalDateTime START = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER_ID, BOOKER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'batch-owner@mail.ru')", OWNER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'booker', 'batch-booker@mail.ru')",
+                BOOKER_ID);
+        jdbcTemplate.update("insert into items (id, name, description, available, user_id) " +
+                "values (?, 'item', 'description', true, ?), (?, 'other', 'description', true, ?)",
+                ITEM_ID, OWNER_ID, OTHER_ITEM_ID, OWNER_ID);
+    }
+
+    @Test
+    void createBatchReturnsBookingsInRequestOrder() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", BOOKER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch(List.of(OTHER_ITEM_ID, ITEM_ID))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].item.id").value(OTHER_ITEM_ID))
+                .andExpect(jsonPath("$[1].item.id").value(ITEM_ID));
+    }
+
+    @Test
+    void createBatchWithInvalidEntryCreatesNothing() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", BOOKER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch(List.of(ITEM_ID, UNKNOWN_ITEM_ID))))
+                .andExpect(status().isNotFound());
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking where booker_id = ?",
+                Integer.class, BOOKER_ID));
+    }
+
+    @Test
+    void createBatchOverMaxSizeIsRejected() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", BOOKER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch(Collections.nCopies(BookingBatchDto.MAX_SIZE + 1, ITEM_ID))))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking where booker_id = ?",
+                Integer.class, BOOKER_ID));
+    }
+
+    @Test
+    void createBatchWithNullFieldIsRejected() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", BOOKER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookings\": [{\"itemId\": " + ITEM_ID + ", \"start\": \"" + START + "\", " +
+                                "\"end\": \"" + START.plusDays(1) + "\"}, {\"itemId\": " + OTHER_ITEM_ID + ", " +
+                                "\"start\": \"" + START + "\"}, null]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking where booker_id = ?",
+                Integer.class, BOOKER_ID));
+    }
+
+    @Test
+    void createBatchWithEndBeforeStartCreatesNothing() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", BOOKER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookings\": [{\"itemId\": " + ITEM_ID + ", \"start\": \"" + START + "\", " +
+                                "\"end\": \"" + START.plusDays(1) + "\"}, {\"itemId\": " + OTHER_ITEM_ID + ", " +
+                                "\"start\": \"" + START + "\", \"end\": \"" + START + "\"}]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking where booker_id = ?",
+                Integer.class, BOOKER_ID));
+    }
+
+    @Test
+    void responseToRequestBatchWithNullFieldIsRejected() throws Exception {
+        jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                "values (?, ?, ?, ?, ?, 'WAITING')", ITEM_ID, ITEM_ID, BOOKER_ID,
+                Timestamp.valueOf(START), Timestamp.valueOf(START.plusDays(1)));
+
+        for (String invalid : List.of("{\"bookingId\": null, \"approved\": true}",
+                "{\"bookingId\": " + ITEM_ID + "}", "null")) {
+            mockMvc.perform(patch("/bookings/batch")
+                            .header("X-Sharer-User-Id", OWNER_ID)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"approvals\": [{\"bookingId\": " + ITEM_ID + ", \"approved\": true}, " +
+                                    invalid + "]}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        assertEquals(List.of("WAITING"), jdbcTemplate.queryForList(
+                "select status from booking where booker_id = ?", String.class, BOOKER_ID));
+    }
+
+    /**
+     * Второе бронирование пересекается с первым: ошибка второго элемента отменяет подтверждение первого
+     */
+    @Test
+    void responseToRequestBatchWithOverlapApprovesNothing() throws Exception {
+        for (long id = ITEM_ID; id <= ITEM_ID + 1; id++) {
+            jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                    "values (?, ?, ?, ?, ?, 'WAITING')", id, ITEM_ID, BOOKER_ID,
+                    Timestamp.valueOf(START), Timestamp.valueOf(START.plusDays(1)));
+        }
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", OWNER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"approvals\": [{\"bookingId\": " + ITEM_ID + ", \"approved\": true}, " +
+                                "{\"bookingId\": " + (ITEM_ID + 1) + ", \"approved\": true}]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(List.of("WAITING", "WAITING"), jdbcTemplate.queryForList(
+                "select status from booking where booker_id = ? order by id", String.class, BOOKER_ID));
+    }
+
+    @Test
+    void findBookingByIdWithMatchingEtagIsNotModified() throws Exception {
+        jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                "values (?, ?, ?, ?, ?, 'WAITING')", ITEM_ID, ITEM_ID, BOOKER_ID,
+                Timestamp.valueOf(START), Timestamp.valueOf(START.plusDays(1)));
+        String etag = "\"" + ITEM_ID + "-0-0\"";
+
+        mockMvc.perform(get("/bookings/{bookingId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", BOOKER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.id").value(ITEM_ID));
+        mockMvc.perform(get("/bookings/{bookingId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", BOOKER_ID)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void unknownStateIsBadRequest() throws Exception {
+        for (String path : List.of("/bookings", "/bookings/owner")) {
+            mockMvc.perform(get(path)
+                            .header("X-Sharer-User-Id", BOOKER_ID)
+                            .param("state", "UNSUPPORTED_STATUS"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Unknown state: UNSUPPORTED_STATUS"));
+        }
+    }
+
+    private static String batch(List<Long> itemIds) {
+        StringBuilder content = new StringBuilder("{\"bookings\": [");
+        for (int i = 0; i < itemIds.size(); i++) {
+            LocalDateTime start = START.plusDays(2L * i);
+            content.append(i == 0 ? "" : ", ")
+                    .append("{\"itemId\": ").append(itemIds.get(i))
+                    .append(", \"start\": \"").append(start)
+                    .append("\", \"end\": \"").append(start.plusDays(1)).append("\"}");
+        }
+        return content.append("]}").toString();
+    }
+}
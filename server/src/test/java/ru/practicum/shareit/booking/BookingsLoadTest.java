@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking;
+
+import com.sun.management.OperatingSystemMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Нагрузочный тест GET /bookings с постоянной частотой RPS запросов (открытая модель нагрузки)
+ * на сервере с пулом из продакшн-профиля. Пул не должен быть узким местом: запросы не ждут соединение
+ * (hikaricp.connections.pending всегда ноль), и 99% соединений выдаются быстрее ACQUIRE_THRESHOLD_MS.
+ * Максимум времени получения не проверяется: в нем остаются паузы GC и вытеснение потока процессором.
+ * <p>
+ * Частота задается -Dshareit.load-test.rps, по умолчанию 500. Если по процессорному времени запроса
+ * машина при такой частоте загружена больше чем на MAX_CPU_UTILIZATION, тест пропускается: очередь
+ * к пулу тогда растет из-за процессора, а не из-за размера пула
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+        "management.metrics.distribution.slo.hikaricp.connections.acquire=" + BookingsLoadTest.ACQUIRE_THRESHOLD_MS + "ms"
+})
+@ActiveProfiles({"test", "prod"})
+class BookingsLoadTest {
+    private static final int RPS = Integer.getInteger("shareit.load-test.rps", 500);
+    private static final int SECONDS = 5;
+    private static final int WARMUP_REQUESTS = 1_000;
+    static final long ACQUIRE_THRESHOLD_MS = 50;
+    private static final double MAX_SLOW_ACQUIRE_SHARE = 0.01;
+    private static final double MAX_CPU_UTILIZATION = 0.75;
+    private static final long OWNER_ID = 1_600;
+    private static final long BOOKER_ID = 1_601;
+    private static final long ITEM_ID = 1_600;
+    private static final int BOOKINGS = 40;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(64);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER_ID, BOOKER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'load-owner@mail.ru')", OWNER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'booker', 'load-booker@mail.ru')",
+                BOOKER_ID);
+        jdbcTemplate.update("insert into items (id, name, description, available, user_id) " +
+                "values (?, 'item', 'description', true, ?)", ITEM_ID, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                    "values (?, ?, ?, ?, ?, 'APPROVED')", ITEM_ID + i, ITEM_ID, BOOKER_ID,
+                    Timestamp.valueOf(start.plusDays(i)), Timestamp.valueOf(start.plusDays(i).plusHours(1)));
+            jdbcTemplate.update("insert into booking_view " +
+                    "(id, owner_id, booker_id, item_id, item_name, start_booking, end_booking, status) " +
+                    "values (?, ?, ?, ?, 'item', ?, ?, 'APPROVED')", ITEM_ID + i, OWNER_ID, BOOKER_ID, ITEM_ID,
+                    Timestamp.valueOf(start.plusDays(i)), Timestamp.valueOf(start.plusDays(i).plusHours(1)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void connectionPoolIsNotBottleneckForBookings() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(executor)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/bookings?state=ALL&from=0&size=20"))
+                .header("X-Sharer-User-Id", String.valueOf(BOOKER_ID))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        // Последовательный прогрев: JIT и кеши без параллельных запросов, ожидания пула здесь быть не может.
+        // По второй половине прогрева оценивается процессорное время одного запроса вместе с клиентом
+        OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuStart = 0;
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            if (i == WARMUP_REQUESTS / 2) {
+                cpuStart = os.getProcessCpuTime();
+            }
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+        }
+        double requestCpuSeconds = (os.getProcessCpuTime() - cpuStart) / 1e9 / (WARMUP_REQUESTS / 2.0);
+        double utilization = RPS * requestCpuSeconds / Runtime.getRuntime().availableProcessors();
+        assumeTrue(utilization <= MAX_CPU_UTILIZATION, () -> String.format("Процессор не выдержит %d RPS: "
+                + "запрос %.1f мс процессорного времени, загрузка %.2f", RPS, requestCpuSeconds * 1000, utilization));
+
+        Timer acquire = meterRegistry.get("hikaricp.connections.acquire").timer();
+        HistogramSnapshot acquireBefore = acquire.takeSnapshot();
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong maxPending = new AtomicLong();
+        List<CompletableFuture<?>> responses = Collections.synchronizedList(new ArrayList<>());
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        scheduler.scheduleAtFixedRate(() -> responses.add(client.sendAsync(request,
+                        HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        failures.incrementAndGet();
+                        return;
+                    }
+                    statuses.computeIfAbsent(response.statusCode(), code -> new AtomicInteger()).incrementAndGet();
+                })), 0, TimeUnit.SECONDS.toNanos(1) / RPS, TimeUnit.NANOSECONDS);
+        scheduler.scheduleAtFixedRate(() -> maxPending.accumulateAndGet((long) metric("hikaricp.connections.pending"),
+                Math::max), 0, 10, TimeUnit.MILLISECONDS);
+
+        TimeUnit.SECONDS.sleep(SECONDS);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .get(10, TimeUnit.SECONDS);
+
+        HistogramSnapshot acquireAfter = acquire.takeSnapshot();
+        long acquired = acquireAfter.count() - acquireBefore.count();
+        long slowAcquired = acquired - (fastAcquired(acquireAfter) - fastAcquired(acquireBefore));
+        assertTrue(responses.size() >= RPS * SECONDS * 9 / 10, () -> "Отправлено запросов: " + responses.size());
+        assertEquals(0, failures.get());
+        assertEquals(responses.size(), statuses.getOrDefault(200, new AtomicInteger()).get(),
+                () -> "Статусы ответов: " + statuses);
+        assertEquals(0, maxPending.get(), "Запросы ждали соединение из пула");
+        assertTrue(slowAcquired <= acquired * MAX_SLOW_ACQUIRE_SHARE, () -> String.format(
+                "Соединение получено дольше %d мс в %d из %d случаев", ACQUIRE_THRESHOLD_MS, slowAcquired, acquired));
+    }
+
+    private double metric(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    /**
+     * Сколько соединений получено не дольше ACQUIRE_THRESHOLD_MS, по SLO-корзине гистограммы
+     */
+    private static long fastAcquired(HistogramSnapshot snapshot) {
+        return Arrays.stream(snapshot.histogramCounts())
+                .filter(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) == ACQUIRE_THRESHOLD_MS)
+                .mapToLong(bucket -> (long) bucket.count())
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Секционирование booking на настоящем Postgres: схема при старте переводит booking на месячные секции,
+ * BookingPartitionMaintenance создает секции вперед и отсоединяет старые вместе с их записями booking_view
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class BookingPartitionMaintenanceTest {
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:13.7-alpine");
+
+    @Autowired
+    private BookingPartitionMaintenance maintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQL10Dialect");
+        registry.add("spring.sql.init.schema-locations", () -> "classpath:schema.sql,classpath:schema-postgresql.sql");
+        registry.add("shareit.item.search-mode", () -> "FULLTEXT");
+        registry.add("shareit.booking.partitioning.enabled", () -> "true");
+        registry.add("shareit.booking.partitioning.months-ahead", () -> "5");
+        // Обслуживание в тестах запускается вручную
+        registry.add("shareit.booking.partitioning.cron", () -> "-");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru')");
+        jdbcTemplate.update("insert into users (id, name, email) values (2, 'booker', 'booker@mail.ru')");
+        jdbcTemplate.update("insert into items (id, name, description, available, user_id) " +
+                "values (1, 'item', 'description', true, 1)");
+    }
+
+    @Test
+    void schemaConvertsBookingToMonthlyPartitions() {
+        assertEquals("p", jdbcTemplate.queryForObject("select relkind from pg_class where oid = 'booking'::regclass",
+                String.class));
+        String partition = partition(LocalDate.now());
+        assertTrue(isPartitionOfBooking(partition));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from pg_constraint where conname = ?",
+                Integer.class, partition + "_item_overlap"));
+    }
+
+    @Test
+    void maintainCreatesPartitionsAheadAndIsRepeatable() {
+        maintenance.maintain();
+        maintenance.maintain();
+
+        for (int i = 0; i <= 5; i++) {
+            assertTrue(isPartitionOfBooking(partition(LocalDate.now().plusMonths(i))));
+        }
+    }
+
+    @Test
+    void createdPartitionRejectsOverlappingApprovedBookings() {
+        maintenance.maintain();
+        LocalDateTime start = LocalDate.now().plusMonths(5).atStartOfDay();
+        insertBooking(1, start, start.plusDays(2), "APPROVED");
+        insertBooking(2, start.plusDays(1), start.plusDays(3), "WAITING");
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> insertBooking(3, start.plusDays(1), start.plusDays(3), "APPROVED"));
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from " + partition(start.toLocalDate()),
+                Integer.class));
+    }
+
+    @Test
+    void maintainArchivesOldPartitionsWithTheirBookingViews() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1).minusMonths(30);
+        jdbcTemplate.queryForList("select create_booking_partition(?)", Date.valueOf(month));
+        LocalDateTime start = month.atStartOfDay();
+        insertBooking(10, start, start.plusDays(1), "APPROVED");
+        insertBookingView(10, start, start.plusDays(1));
+        jdbcTemplate.update("insert into item_booking_summary (item_id, last_booking_id, last_booker_id) " +
+                "values (1, 10, 2)");
+
+        maintenance.maintain();
+
+        String archive = "booking_archive_" + month.format(PARTITION_SUFFIX);
+        assertFalse(isPartitionOfBooking(partition(month)));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from " + archive, Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking where id = 10", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking_view where id = 10",
+                Integer.class));
+        assertNotNull(jdbcTemplate.queryForObject("select next_start from item_booking_summary where item_id = 1",
+                Timestamp.class));
+        jdbcTemplate.execute("drop table " + archive);
+    }
+
+    @Test
+    void deletingBookingDeletesItsBookingView() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        insertBooking(20, start, start.plusDays(1), "WAITING");
+        insertBookingView(20, start, start.plusDays(1));
+
+        jdbcTemplate.update("delete from booking where id = 20");
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from booking_view where id = 20",
+                Integer.class));
+    }
+
+    @Test
+    void movingBookingsFromDefaultPartitionKeepsBookingViews() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1).plusMonths(12);
+        LocalDateTime start = month.atStartOfDay();
+        insertBooking(30, start, start.plusDays(1), "WAITING");
+        insertBookingView(30, start, start.plusDays(1));
+
+        jdbcTemplate.queryForList("select create_booking_partition(?)", Date.valueOf(month));
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from " + partition(month), Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from booking_view where id = 30",
+                Integer.class));
+    }
+
+    private void insertBooking(long id, LocalDateTime start, LocalDateTime end, String status) {
+        jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                "values (?, 1, 2, ?, ?, ?)", id, Timestamp.valueOf(start), Timestamp.valueOf(end), status);
+    }
+
+    private void insertBookingView(long id, LocalDateTime start, LocalDateTime end) {
+        jdbcTemplate.update("insert into booking_view " +
+                "(id, owner_id, booker_id, item_id, item_name, start_booking, end_booking, status) " +
+                "select id, 1, booker_id, item_id, 'item', ?, ?, status from booking where id = ?",
+                Timestamp.valueOf(start), Timestamp.valueOf(end), id);
+    }
+
+    private boolean isPartitionOfBooking(String partition) {
+        return jdbcTemplate.queryForObject("select count(*) from pg_inherits " +
+                "where inhparent = 'booking'::regclass and inhrelid = to_regclass(?)", Integer.class, partition) == 1;
+    }
+
+    private static String partition(LocalDate month) {
+        return "booking_p" + month.format(PARTITION_SUFFIX);
+    }
+}
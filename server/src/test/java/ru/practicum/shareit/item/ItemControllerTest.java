@@ -0,0 +1,142 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "shareit.item.search-mode=MEMORY")
+@AutoConfigureMockMvc
+class ItemControllerTest {
+    private static final long OWNER_ID = 1_200;
+    private static final long OTHER_USER_ID = 1_201;
+    private static final long ITEM_ID = 1_200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users where id = ?", OWNER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'conflict@mail.ru')", OWNER_ID);
+        jdbcTemplate.update("insert into items (id, name, description, available, user_id) " +
+                "values (?, 'item', 'description', true, ?)", ITEM_ID, OWNER_ID);
+        itemSearchIndex.rebuild();
+    }
+
+    /**
+     * Первое обновление останавливается после изменения предмета, но до коммита, второе в это время
+     * успевает закоммитить ту же версию. Проигравший запрос получает 409, а его название не попадает в индекс
+     */
+    @Test
+    void concurrentUpdateOfSameVersionReturnsConflict() throws Exception {
+        CountDownLatch firstLoaded = new CountDownLatch(1);
+        CountDownLatch secondCommitted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstLoaded.countDown();
+            assertTrue(secondCommitted.await(10, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(itemSearchIndex).index(argThat((Item item) -> "first".equals(item.getName())));
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> update("first"));
+        assertTrue(firstLoaded.await(10, TimeUnit.SECONDS));
+        mockMvc.perform(patch("/items/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", OWNER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"second\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("second"));
+        secondCommitted.countDown();
+
+        assertEquals(409, first.get(10, TimeUnit.SECONDS));
+        assertEquals("second", jdbcTemplate.queryForObject("select name from items where id = ?",
+                String.class, ITEM_ID));
+        assertEquals(1, jdbcTemplate.queryForObject("select version from items where id = ?",
+                Long.class, ITEM_ID));
+        assertTrue(itemSearchIndex.search("second", 0, Integer.MAX_VALUE).contains(ITEM_ID));
+        assertFalse(itemSearchIndex.search("first", 0, Integer.MAX_VALUE).contains(ITEM_ID));
+    }
+
+    /**
+     * ETag выдается всем, кроме владельца: его ответ зависит от текущего времени
+     */
+    @Test
+    void findItemWithMatchingEtagIsNotModified() throws Exception {
+        String etag = "\"" + ITEM_ID + "-0\"";
+
+        mockMvc.perform(get("/items/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", OWNER_ID)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.id").value(ITEM_ID));
+        mockMvc.perform(get("/items/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", OTHER_USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        mockMvc.perform(get("/items/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", OTHER_USER_ID)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Предметы удаляются каскадно в БД вместе с владельцем и должны пропасть из индекса
+     */
+    @Test
+    void deletedOwnerItemsAreNotFound() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", OWNER_ID)
+                        .param("text", "descr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + ITEM_ID + ")]").exists());
+
+        mockMvc.perform(delete("/users/{id}", OWNER_ID))
+                .andExpect(status().isOk());
+
+        assertFalse(itemSearchIndex.search("descr", 0, Integer.MAX_VALUE).contains(ITEM_ID));
+    }
+
+    private int update(String name) {
+        try {
+            return mockMvc.perform(patch("/items/{itemId}", ITEM_ID)
+                            .header("X-Sharer-User-Id", OWNER_ID)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"" + name + "\"}"))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
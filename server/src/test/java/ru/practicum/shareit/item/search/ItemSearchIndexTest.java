@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchIndex index = new ItemSearchIndex(itemRepository, ItemSearchMode.MEMORY);
+
+    @BeforeEach
+    void setUp() {
+        index.index(item(1, "Дрель", "Простая дрель", true));
+        index.index(item(2, "Отвертка", "Аккумуляторная отвертка", true));
+        index.index(item(3, "Аккумуляторная дрель", "Дрель-шуруповерт", true));
+        index.index(item(4, "Пила", "Дрель не нужна", false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void searchFindsSubstringOfWordInNameOrDescription() {
+        assertEquals(List.of(1L, 3L), index.search("дрел", 0, 10));
+        assertEquals(List.of(2L, 3L), index.search("КУМУЛЯТОР", 0, 10));
+        assertEquals(List.of(3L), index.search("уруп", 0, 10));
+        assertEquals(List.of(), index.search("перфоратор", 0, 10));
+    }
+
+    @Test
+    void searchFindsShortSubstrings() {
+        assertEquals(List.of(1L, 3L), index.search("ь", 0, 10));
+        assertEquals(List.of(2L, 3L), index.search("ак", 0, 10));
+        assertEquals(List.of(2L, 3L), index.search("ор", 0, 10));
+    }
+
+    @Test
+    void searchOfSeveralWordsRequiresWholePhrase() {
+        assertEquals(List.of(2L), index.search("ная отв", 0, 10));
+        assertEquals(List.of(1L, 3L), index.search("ая дрель", 0, 10));
+        assertEquals(List.of(3L), index.search("дрель-шуруп", 0, 10));
+        assertEquals(List.of(), index.search("дрель аккумуляторная", 0, 10));
+    }
+
+    @Test
+    void searchSkipsUnavailableItems() {
+        assertEquals(List.of(), index.search("пила", 0, 10));
+        assertEquals(List.of(), index.search("нужна", 0, 10));
+    }
+
+    @Test
+    void searchIsPaged() {
+        assertEquals(List.of(1L, 2L), index.search("р", 0, 2));
+        assertEquals(List.of(3L), index.search("р", 2, 2));
+        assertEquals(List.of(), index.search("р", 4, 2));
+    }
+
+    @Test
+    void updateReplacesOldWords() {
+        index.index(item(1, "Молоток", "Тяжелый", true));
+
+        assertEquals(List.of(3L), index.search("дрель", 0, 10));
+        assertEquals(List.of(1L), index.search("оток", 0, 10));
+        assertEquals(List.of(), index.search("прост", 0, 10));
+    }
+
+    @Test
+    void updateToUnavailableRemovesItem() {
+        index.index(item(3, "Аккумуляторная дрель", "Дрель-шуруповерт", false));
+
+        assertEquals(List.of(1L), index.search("дрель", 0, 10));
+        assertEquals(List.of(), index.search("уруп", 0, 10));
+    }
+
+    @Test
+    void removeDeletesItem() {
+        index.remove(1);
+
+        assertEquals(List.of(3L), index.search("дрель", 0, 10));
+        assertEquals(List.of(), index.search("прост", 0, 10));
+    }
+
+    @Test
+    void removeUserItemsDeletesAllItemsOfUser() {
+        when(itemRepository.findIdsByUserId(7L)).thenReturn(List.of(1L, 3L));
+
+        index.removeUserItems(7);
+
+        assertEquals(List.of(), index.search("дрель", 0, 10));
+        assertEquals(List.of(2L), index.search("аккумулятор", 0, 10));
+    }
+
+    @Test
+    void changesInTransactionAreAppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(item(5, "Перфоратор", "Мощный", true));
+        index.remove(1);
+
+        assertEquals(List.of(), index.search("перфоратор", 0, 10));
+        assertEquals(List.of(1L, 3L), index.search("дрель", 0, 10));
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+        assertEquals(List.of(5L), index.search("перфоратор", 0, 10));
+        assertEquals(List.of(3L), index.search("дрель", 0, 10));
+    }
+
+    @Test
+    void changesInRolledBackTransactionAreDiscarded() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(item(1, "Молоток", "Тяжелый", true));
+        index.remove(2);
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(List.of(), index.search("молоток", 0, 10));
+        assertEquals(List.of(1L, 3L), index.search("дрель", 0, 10));
+        assertEquals(List.of(2L), index.search("отвертка", 0, 10));
+    }
+
+    @Test
+    void disabledIndexIgnoresChanges() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemRepository, ItemSearchMode.JPQL);
+
+        disabled.index(item(1, "Дрель", "Простая дрель", true));
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(List.of(), disabled.search("дрель", 0, 10));
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ItemServiceImplTest {
+    private static final long OWNER_ID = 1_100;
+    private static final long BOOKER_ID = 1_101;
+    private static final long ITEM_ID = 1_100;
+    private static final long OTHER_ITEM_ID = 1_101;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users where id in (?, ?)", OWNER_ID, BOOKER_ID);
+        entityManagerFactory.getCache().evictAll();
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'item-owner@mail.ru')", OWNER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'booker', 'item-booker@mail.ru')",
+                BOOKER_ID);
+        jdbcTemplate.update("insert into items (id, name, description, available, user_id) " +
+                "values (?, 'item', 'description', true, ?), (?, 'other', 'description', true, ?)",
+                ITEM_ID, OWNER_ID, OTHER_ITEM_ID, OWNER_ID);
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update("insert into booking (id, item_id, booker_id, start_booking, end_booking, status) " +
+                "values (?, ?, ?, ?, ?, 'APPROVED')", ITEM_ID, ITEM_ID, BOOKER_ID,
+                Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)));
+    }
+
+    @Test
+    void createCommentChangesItemEtagWithoutEvictingOtherItems() {
+        assertEquals("\"" + ITEM_ID + "-0\"", itemService.findItemByIdItem(ITEM_ID, BOOKER_ID, etag -> false).getEtag());
+        itemService.findItemByIdItem(OTHER_ITEM_ID, BOOKER_ID, etag -> false);
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, OTHER_ITEM_ID));
+
+        Comment comment = new Comment();
+        comment.setText("comment");
+        itemService.createComment(BOOKER_ID, ITEM_ID, comment);
+
+        assertEquals("\"" + ITEM_ID + "-1\"", itemService.findItemByIdItem(ITEM_ID, BOOKER_ID, etag -> false).getEtag());
+        assertEquals(1, jdbcTemplate.queryForObject("select version from items where id = ?", Long.class, ITEM_ID));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, OTHER_ITEM_ID));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.request.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class ItemRequestServiceImplTest {
+    private static final long USER_ID = 1_300;
+    private static final int REQUESTS = 12;
+    private static final int ITEMS_PER_REQUEST = 2;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users where id between ? and ?", USER_ID, USER_ID + REQUESTS);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'owner', 'request-owner@mail.ru')",
+                USER_ID);
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        for (int i = 1; i <= REQUESTS; i++) {
+            long requestorId = USER_ID + i;
+            jdbcTemplate.update("insert into users (id, name, email) values (?, 'requestor', ?)",
+                    requestorId, "requestor" + i + "@mail.ru");
+            jdbcTemplate.update("insert into request (id, description, requestor_id, time_create) " +
+                    "values (?, 'request', ?, ?)", requestorId, requestorId, Timestamp.valueOf(created.plusMinutes(i)));
+            for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                jdbcTemplate.update("insert into items (id, name, description, available, user_id, request_id) " +
+                        "values (?, 'item', 'description', true, ?, ?)",
+                        requestorId * 10 + j, USER_ID, requestorId);
+            }
+        }
+    }
+
+    /**
+     * Число запросов к БД не зависит от размера страницы: вещи всех запросов страницы загружаются одним IN,
+     * а не отдельным запросом на каждый
+     */
+    @Test
+    void findAllRequestRunsSameNumberOfStatementsForAnyPageSize() {
+        long small = countStatements(2);
+        assertEquals(small, countStatements(6));
+        assertEquals(small, countStatements(REQUESTS));
+    }
+
+    private long countStatements(int size) {
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemRequestDto> requests = itemRequestService.findAllRequest(USER_ID, 0, size);
+        assertEquals(size, requests.size());
+        requests.forEach(request -> assertEquals(ITEMS_PER_REQUEST, request.getItems().size()));
+        return statistics.getPrepareStatementCount();
+    }
+}
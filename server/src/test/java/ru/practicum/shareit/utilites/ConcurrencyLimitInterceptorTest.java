@@ -0,0 +1,123 @@
+package ru.practicum.shareit.utilites;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ограничение в один параллельный запрос: пока первый запрос удерживает разрешение,
+ * остальные через ACQUIRE_TIMEOUT_MS получают 503
+ */
+@SpringBootTest(properties = {
+        "shareit.concurrency.enabled=true",
+        "shareit.concurrency.max-requests=1",
+        "shareit.concurrency.acquire-timeout=" + ConcurrencyLimitInterceptorTest.ACQUIRE_TIMEOUT_MS + "ms"
+})
+@AutoConfigureMockMvc
+class ConcurrencyLimitInterceptorTest {
+    static final long ACQUIRE_TIMEOUT_MS = 300;
+    private static final long BLOCKED_USER_ID = 1_700;
+    private static final long USER_ID = 1_701;
+    private static final long UNKNOWN_USER_ID = 1_799;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private UserService userService;
+
+    private final CountDownLatch blockedEntered = new CountDownLatch(1);
+    private final CountDownLatch blockedReleased = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users where id in (?, ?)", BLOCKED_USER_ID, USER_ID);
+        jdbcTemplate.update("insert into users (id, name, email) values (?, 'blocked', 'limit-blocked@mail.ru'), " +
+                "(?, 'user', 'limit-user@mail.ru')", BLOCKED_USER_ID, USER_ID);
+        doAnswer(invocation -> {
+            if ((long) invocation.getArgument(0) == BLOCKED_USER_ID) {
+                blockedEntered.countDown();
+                assertTrue(blockedReleased.await(10, TimeUnit.SECONDS));
+            }
+            return invocation.callRealMethod();
+        }).when(userService).findUserById(anyLong());
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockedReleased.countDown();
+    }
+
+    /**
+     * Отклоненный запрос не возвращает разрешение, которого не получал: пока первый запрос
+     * не завершен, второй и третий одинаково получают 503
+     */
+    @Test
+    void excessRequestIsRejectedAfterAcquireTimeout() throws Exception {
+        CompletableFuture<Integer> blocked = CompletableFuture.supplyAsync(() -> requestStatus(BLOCKED_USER_ID));
+        assertTrue(blockedEntered.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            mockMvc.perform(get("/users/{id}", USER_ID))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.error").value("Сервер перегружен, повторите запрос позже"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= ACQUIRE_TIMEOUT_MS);
+        }
+
+        blockedReleased.countDown();
+        assertEquals(200, blocked.get(10, TimeUnit.SECONDS));
+        mockMvc.perform(get("/users/{id}", USER_ID))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Разрешение возвращается и тогда, когда обработчик завершился ошибкой: иначе после первой
+     * ошибки все следующие запросы получали бы 503
+     */
+    @Test
+    void permitIsReleasedWhenHandlerFails() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/users/{id}", UNKNOWN_USER_ID))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(get("/users/{id}", "not-a-number"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(get("/users/{id}", USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(USER_ID));
+    }
+
+    private int requestStatus(long userId) {
+        try {
+            return mockMvc.perform(get("/users/{id}", userId))
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
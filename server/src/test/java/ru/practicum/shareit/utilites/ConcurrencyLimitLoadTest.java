@@ -0,0 +1,163 @@
+package ru.practicum.shareit.utilites;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.ShareItServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * p99 времени ответа при перегрузке пула соединений с ограничением параллельных запросов и без него.
+ * Запрос держит одно из POOL_SIZE соединений QUERY_MS, частота RPS выше пропускной способности пула
+ * (POOL_SIZE / QUERY_MS), так что очередь растет все время теста. Без ограничения запросы ждут соединение
+ * в Hikari, и ожидание последних растет до секунд. С ограничением запрос ждет не дольше ACQUIRE_TIMEOUT_MS
+ * и получает 503, поэтому p99 всех ответов остается около ACQUIRE_TIMEOUT_MS + QUERY_MS
+ */
+class ConcurrencyLimitLoadTest {
+    private static final int POOL_SIZE = 2;
+    private static final long QUERY_MS = 50;
+    private static final int RPS = 60;
+    private static final int SECONDS = 5;
+    private static final long ACQUIRE_TIMEOUT_MS = 500;
+    private static final long P99_SLACK_MS = 500;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void limitKeepsP99NearAcquireTimeoutUnderOverload() throws Exception {
+        LoadResult unlimited = run(false);
+        LoadResult limited = run(true);
+
+        assertEquals(unlimited.total, unlimited.statuses.getOrDefault(200, 0), () -> "Без ограничения: " + unlimited);
+        assertEquals(limited.total, limited.statuses.getOrDefault(200, 0) + limited.statuses.getOrDefault(503, 0),
+                () -> "С ограничением: " + limited);
+        assertTrue(limited.statuses.getOrDefault(503, 0) > 0, () -> "С ограничением: " + limited);
+        assertTrue(limited.p99Ms <= ACQUIRE_TIMEOUT_MS + QUERY_MS + P99_SLACK_MS,
+                () -> "С ограничением: " + limited + ", без ограничения: " + unlimited);
+        assertTrue(limited.p99Ms < unlimited.p99Ms,
+                () -> "С ограничением: " + limited + ", без ограничения: " + unlimited);
+    }
+
+    /**
+     * Запускает сервер на отдельной базе H2 и подает нагрузку с постоянной частотой (открытая модель)
+     */
+    private LoadResult run(boolean limitEnabled) throws Exception {
+        // Кэш второго уровня выключен: JCache-менеджер общий на JVM, и закрытие этого контекста
+        // закрыло бы кэши контекстов других тестов
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(ShareItServer.class, SlowQueryController.class)
+                        .profiles("test")
+                        .run("--server.port=0",
+                                "--spring.datasource.url=jdbc:h2:mem:concurrency-" + limitEnabled + ";DB_CLOSE_DELAY=-1",
+                                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                                "--spring.datasource.hikari.minimum-idle=" + POOL_SIZE,
+                                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                                "--shareit.concurrency.enabled=" + limitEnabled,
+                                "--shareit.concurrency.acquire-timeout=" + ACQUIRE_TIMEOUT_MS + "ms")) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + context.getWebServer().getPort() + "/slow-query"))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            for (int i = 0; i < 20; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<?>> responses = Collections.synchronizedList(new ArrayList<>());
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+            scheduler.scheduleAtFixedRate(() -> {
+                long start = System.nanoTime();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenAccept(response -> {
+                            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                            statuses.computeIfAbsent(response.statusCode(), code -> new AtomicInteger())
+                                    .incrementAndGet();
+                        }));
+            }, 0, TimeUnit.SECONDS.toNanos(1) / RPS, TimeUnit.NANOSECONDS);
+            TimeUnit.SECONDS.sleep(SECONDS);
+            scheduler.shutdown();
+            assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+            CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            Map<Integer, Integer> counts = new ConcurrentHashMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.get()));
+            return new LoadResult(responses.size(), counts, sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1));
+        }
+    }
+
+    private static class LoadResult {
+        private final int total;
+        private final Map<Integer, Integer> statuses;
+        private final long p99Ms;
+
+        LoadResult(int total, Map<Integer, Integer> statuses, long p99Ms) {
+            this.total = total;
+            this.statuses = statuses;
+            this.p99Ms = p99Ms;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d запросов, статусы %s, p99 %d мс", total, statuses, p99Ms);
+        }
+    }
+
+    /**
+     * Запрос, занимающий соединение из пула на QUERY_MS, как медленный запрос к БД
+     */
+    @RestController
+    static class SlowQueryController {
+        private final JdbcTemplate jdbcTemplate;
+
+        SlowQueryController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/slow-query")
+        public void slowQuery() {
+            jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(QUERY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.utilites.replica;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Маршрутизация на двух разных базах H2: у пользователя USER_ID в основной БД и в реплике разные имена,
+ * поэтому по ответу видно, из какой базы он прочитан
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingDataSourceTest.PRIMARY_URL,
+        "shareit.datasource.replica.enabled=true",
+        "shareit.datasource.replica.urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+        "shareit.datasource.replica.lag-query=select 0",
+        "shareit.datasource.replica.sticky-window=1m"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingDataSourceTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final long USER_ID = 1_400;
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeAll
+    static void createReplica() {
+        REPLICA.execute("runscript from 'classpath:schema.sql'");
+        REPLICA.update("delete from users");
+        REPLICA.update("insert into users (id, name, email) values (?, 'replica', 'user@routing.ru')", USER_ID);
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary.update("delete from users");
+        primary.update("insert into users (id, name, email) values (?, 'primary', 'user@routing.ru')", USER_ID);
+        entityManagerFactory.getCache().evictAll();
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.forcePrimary(false);
+    }
+
+    @Test
+    void readOnlyTransactionReadsReplica() {
+        assertEquals(List.of("replica"), names(userService.findAll(0, 10)));
+    }
+
+    @Test
+    void readWriteTransactionReadsAndWritesPrimary() {
+        User update = new User();
+        update.setName("updated");
+        userService.update(USER_ID, update);
+        userService.create(new User(null, "created", "created@routing.ru"));
+
+        assertEquals(List.of("created", "updated"), primary.queryForList("select name from users order by name",
+                String.class));
+        assertEquals(List.of("replica"), REPLICA.queryForList("select name from users order by name", String.class));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        ReflectionTestUtils.setField(replicaLagMonitor, "lagQuery", "select 60");
+        try {
+            replicaLagMonitor.check();
+            assertEquals(List.of("primary"), names(userService.findAll(0, 10)));
+        } finally {
+            ReflectionTestUtils.setField(replicaLagMonitor, "lagQuery", "select 0");
+        }
+    }
+
+    @Test
+    void readsArePinnedToPrimaryAfterUsersWrite() throws Exception {
+        mockMvc.perform(get("/users").header("X-Sharer-User-Id", USER_ID))
+                .andExpect(jsonPath("$[*].name", hasItem("replica")));
+        mockMvc.perform(post("/users")
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"created\", \"email\": \"created@routing.ru\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users").header("X-Sharer-User-Id", USER_ID))
+                .andExpect(jsonPath("$[*].name", hasItem("created")));
+        mockMvc.perform(get("/users").header("X-Sharer-User-Id", USER_ID + 1))
+                .andExpect(jsonPath("$[*].name", hasItem("replica")))
+                .andExpect(jsonPath("$[*].name", not(hasItem("created"))));
+    }
+
+    @Test
+    void replicaPoolPublishesHikariMetrics() {
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", "replica-0").gauge());
+    }
+
+    private static List<String> names(List<User> users) {
+        return users.stream()
+                .map(User::getName)
+                .collect(Collectors.toList());
+    }
+}